@@ -0,0 +1,196 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.entities.Bullet;
+import io.github.antonioartigas.geosteroids.game.SpatialGrid;
+import io.github.antonioartigas.geosteroids.game.Sweep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bullets against asteroids, count of each, without anything getting destroyed so the work is the same
+ * every call. Every case fills the grid and then queries it once per bullet.
+ * <ul>
+ * <li>bulletsVsAsteroids: where each bullet is now against the bounding circles, the broadphase alone.</li>
+ * <li>sweptCircles: what World.earliestHit() did before asteroids were polygons, the circle around each
+ * bullet's move against the grid, then the swept circle test for every candidate.</li>
+ * <li>sweptPolygons: what World.earliestHit() does now, the same plus Sweep's polygon test for every
+ * pair whose circles hit. Against sweptCircles that's what the polygons add.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int count;
+
+    // Grid cell size in World.
+    private static final float CELL_SIZE = 32f;
+    // Same layout as World's asteroidMotion: previous x, y, x, y and hitbox radius.
+    private static final int MOTION_FLOATS = 5;
+
+    private Circle[] asteroids;
+    private Circle[] bullets;
+    private SpatialGrid grid;
+    private final IntArray hits = new IntArray();
+
+    // A tick's worth of movement for the swept cases, asteroids at up to 50 a second like World's.
+    private Asteroid[] movingAsteroids;
+    private float[] asteroidMotion;
+    // Previous x, y, then x, y per bullet.
+    private float[] bulletMotion;
+    private float maxAsteroidStep;
+    private final Circle sweepBounds = new Circle();
+
+    @Setup
+    public void setUp() {
+        var random = new RandomXS128(Scenes.SEED);
+
+        asteroids = new Circle[count];
+        for (int i = 0; i < count; i++) {
+            float radius = (1 + random.nextInt(3)) * 15f;
+            asteroids[i] = new Circle(random.nextFloat() * GeosteroidsGame.WIDTH, random.nextFloat() * GeosteroidsGame.HEIGHT, radius);
+        }
+
+        bullets = new Circle[count];
+        for (int i = 0; i < count; i++) {
+            bullets[i] = new Circle(random.nextFloat() * GeosteroidsGame.WIDTH, random.nextFloat() * GeosteroidsGame.HEIGHT, 1f);
+        }
+
+        grid = new SpatialGrid(GeosteroidsGame.WIDTH, GeosteroidsGame.HEIGHT, CELL_SIZE);
+
+        movingAsteroids = new Asteroid[count];
+        asteroidMotion = new float[count * MOTION_FLOATS];
+        float maxStep2 = 0f;
+        for (int i = 0; i < count; i++) {
+            int stage = 1 + random.nextInt(3);
+            float radius = Asteroid.radius(stage);
+            var asteroid = new Asteroid().init(
+                    random.nextFloat() * GeosteroidsGame.WIDTH, random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 100f - 50f, random.nextFloat() * 100f - 50f,
+                    4 + random.nextInt(5), radius, radius, stage, random.nextFloat() * 360f
+            );
+            asteroid.update(Scenes.TICK);
+            movingAsteroids[i] = asteroid;
+
+            int m = i * MOTION_FLOATS;
+            asteroidMotion[m] = asteroid.previousPosition.x;
+            asteroidMotion[m + 1] = asteroid.previousPosition.y;
+            asteroidMotion[m + 2] = asteroid.position.x;
+            asteroidMotion[m + 3] = asteroid.position.y;
+            asteroidMotion[m + 4] = asteroid.hitbox.radius;
+            maxStep2 = Math.max(maxStep2, asteroid.position.dst2(asteroid.previousPosition));
+        }
+        maxAsteroidStep = (float) Math.sqrt(maxStep2);
+
+        bulletMotion = new float[count * 4];
+        float step = Bullet.MOVE_SPEED * Scenes.TICK;
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * GeosteroidsGame.WIDTH;
+            float y = random.nextFloat() * GeosteroidsGame.HEIGHT;
+            float angle = random.nextFloat() * MathUtils.PI2;
+            bulletMotion[i * 4] = x;
+            bulletMotion[i * 4 + 1] = y;
+            bulletMotion[i * 4 + 2] = x + MathUtils.cos(angle) * step;
+            bulletMotion[i * 4 + 3] = y + MathUtils.sin(angle) * step;
+        }
+    }
+
+    @Benchmark
+    public int bulletsVsAsteroids() {
+        grid.clear();
+        for (int i = 0; i < asteroids.length; i++) {
+            grid.insert(i, asteroids[i]);
+        }
+
+        int total = 0;
+        for (var bullet : bullets) {
+            grid.query(bullet, hits);
+            total += hits.size;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int sweptCircles() {
+        return swept(false);
+    }
+
+    @Benchmark
+    public int sweptPolygons() {
+        return swept(true);
+    }
+
+    // Bullets that hit something, found like World.earliestHit() finds them.
+    private int swept(boolean polygons) {
+        grid.clear();
+        for (int i = 0; i < movingAsteroids.length; i++) {
+            grid.insert(i, movingAsteroids[i].hitbox);
+        }
+
+        int total = 0;
+        for (int b = 0; b < bulletMotion.length; b += 4) {
+            if (earliestHit(bulletMotion[b], bulletMotion[b + 1], bulletMotion[b + 2], bulletMotion[b + 3], polygons) != -1) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private int earliestHit(float x0, float y0, float x1, float y1, boolean polygons) {
+        float radius = Bullet.RADIUS;
+        float moveLength = (float) Math.sqrt((x1 - x0) * (x1 - x0) + (y1 - y0) * (y1 - y0));
+        sweepBounds.set((x0 + x1) / 2f, (y0 + y1) / 2f, moveLength / 2f + radius + maxAsteroidStep);
+        grid.query(sweepBounds, hits);
+
+        int first = -1;
+        float firstTime = Float.MAX_VALUE;
+        for (int i = 0; i < hits.size; i++) {
+            int hit = hits.get(i);
+            int m = hit * MOTION_FLOATS;
+            float time = Sweep.timeOfImpact(
+                    x0, y0, x1, y1,
+                    asteroidMotion[m], asteroidMotion[m + 1], asteroidMotion[m + 2], asteroidMotion[m + 3],
+                    radius + asteroidMotion[m + 4]
+            );
+            if (time == Sweep.NO_HIT || time >= firstTime) {
+                continue;
+            }
+
+            if (polygons) {
+                var asteroid = movingAsteroids[hit];
+                time = Sweep.timeOfImpact(
+                        x0, y0, x1, y1, radius,
+                        asteroid.previousPosition.x, asteroid.previousPosition.y, asteroid.position.x, asteroid.position.y,
+                        asteroid.outline, asteroid.normals, asteroid.sides
+                );
+                if (time == Sweep.NO_HIT || time >= firstTime) {
+                    continue;
+                }
+            }
+            first = hit;
+            firstTime = time;
+        }
+        return first;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.entities.EntityStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving and wrapping asteroids: Entity.update() on objects against EntityStore.step() on the same data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityUpdateBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int count;
+
+    private Asteroid[] objects;
+    private EntityStore store;
+
+    @Setup
+    public void setUp() {
+        var random = new RandomXS128(Scenes.SEED);
+
+        objects = new Asteroid[count];
+        store = EntityStore.asteroids(count);
+        for (int i = 0; i < count; i++) {
+            int stage = 1 + random.nextInt(3);
+            objects[i] = new Asteroid().init(
+                    random.nextFloat() * GeosteroidsGame.WIDTH,
+                    random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 100f - 50f,
+                    random.nextFloat() * 100f - 50f,
+                    4 + random.nextInt(5),
+                    stage * 15,
+                    stage * 15,
+                    stage,
+                    random.nextFloat() * 360f
+            );
+            store.add(objects[i]);
+        }
+    }
+
+    @Benchmark
+    public Asteroid[] objects() {
+        for (var asteroid : objects) {
+            asteroid.update(Scenes.TICK);
+        }
+        return objects;
+    }
+
+    @Benchmark
+    public EntityStore store() {
+        store.step(Scenes.TICK);
+        return store;
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.game.ShapeGeometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The vertex math behind Renderer.drawAsteroid() and drawShip(), without the ShapeRenderer (that needs GL).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererGeometryBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int count;
+
+    private Asteroid[] asteroids;
+    private Vector2[] shipPositions;
+    private float[] shipRotations;
+    private final float[] shipVertices = new float[ShapeGeometry.SHIP_FLOATS];
+    private final float[] asteroidVertices = new float[ShapeGeometry.ASTEROID_FLOATS];
+
+    @Setup
+    public void setUp() {
+        var random = new RandomXS128(Scenes.SEED);
+
+        asteroids = new Asteroid[count];
+        shipPositions = new Vector2[count];
+        shipRotations = new float[count];
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * GeosteroidsGame.WIDTH;
+            float y = random.nextFloat() * GeosteroidsGame.HEIGHT;
+            int stage = 1 + random.nextInt(3);
+            asteroids[i] = new Asteroid().init(x, y, 0f, 0f, 4 + random.nextInt(5), stage * 15, stage * 15, stage, random.nextFloat() * 360f);
+
+            shipPositions[i] = new Vector2(x, y);
+            shipRotations[i] = random.nextFloat() * 360f;
+        }
+    }
+
+    @Benchmark
+    public float[] asteroids() {
+        for (var asteroid : asteroids) {
+            ShapeGeometry.asteroid(asteroid, asteroid.position.x, asteroid.position.y, asteroidVertices);
+        }
+        return asteroidVertices;
+    }
+
+    @Benchmark
+    public float[] ships() {
+        for (int i = 0; i < shipPositions.length; i++) {
+            ShapeGeometry.ship(shipPositions[i].x, shipPositions[i].y, shipRotations[i], shipVertices);
+        }
+        return shipVertices;
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+import io.github.antonioartigas.geosteroids.game.World;
+
+/**
+ * Builds the same random scenes for every benchmark run.
+ */
+final class Scenes {
+    static final float TICK = 1f / 60f;
+    static final long SEED = 42L;
+
+    private Scenes() {
+    }
+
+    /**
+     * A headless world with asteroids and bullets scattered over the screen. Waves aren't started,
+     * so the only changes in counts come from collisions and bullets running out.
+     */
+    static World world(int asteroids, int bullets) {
+        var random = new RandomXS128(SEED);
+        var world = new World(InputSource.NONE, SEED);
+
+        for (int i = 0; i < asteroids; i++) {
+            world.spawnAsteroid(
+                    random.nextFloat() * GeosteroidsGame.WIDTH,
+                    random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 100f - 50f,
+                    random.nextFloat() * 100f - 50f,
+                    1 + random.nextInt(3)
+            );
+        }
+
+        for (int i = 0; i < bullets; i++) {
+            world.spawnBullet(
+                    random.nextFloat() * GeosteroidsGame.WIDTH,
+                    random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 360f
+            );
+        }
+
+        return world;
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import io.github.antonioartigas.geosteroids.game.RewindBuffer;
+import io.github.antonioartigas.geosteroids.game.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving the world into a RewindBuffer and restoring it again, which has to stay under a millisecond at
+ * 10k entities (over 1000 ops/s). rewindOneTick() also runs a tick in between, so restoring has real
+ * changes to undo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStateBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    private World world;
+    private RewindBuffer rewind;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = Scenes.world(entities * 9 / 10, entities / 10);
+        rewind = new RewindBuffer(2, world.getStateSize() * 4);
+    }
+
+    @Benchmark
+    public World recordAndRestore() {
+        rewind.record(world);
+        rewind.rewind(world, 0);
+        return world;
+    }
+
+    @Benchmark
+    public World rewindOneTick() {
+        rewind.record(world);
+        world.update(Scenes.TICK);
+        rewind.record(world);
+        rewind.rewind(world, 1);
+        return world;
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.antonioartigas.geosteroids.benchmarks;
+
+import io.github.antonioartigas.geosteroids.game.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole World.update() tick. Bullets break asteroids and expire while it runs, so the ticks go in
+ * batches of TICKS that all start from the same saved scene, otherwise the counts would drift away from
+ * the parameter. Restoring happens outside the measured call. A single tick at 100 asteroids is only a
+ * few microseconds, far too short to restore around every one of them, a batch is long enough.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldUpdateBenchmark {
+    // A second of game time, few enough for the counts to stay close to the parameter.
+    private static final int TICKS = 60;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int asteroids;
+
+    private World world;
+    private ByteBuffer scene;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = Scenes.world(asteroids, asteroids / 10);
+        scene = ByteBuffer.allocate(world.getStateSize());
+        world.writeState(scene);
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        scene.rewind();
+        world.readState(scene);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public World update() {
+        for (int i = 0; i < TICKS; i++) {
+            world.update(Scenes.TICK);
+        }
+        return world;
+    }
+}
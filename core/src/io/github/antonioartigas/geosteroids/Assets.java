@@ -1,5 +1,6 @@
 package io.github.antonioartigas.geosteroids;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
@@ -10,12 +11,18 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader.FreeTypeFontLoaderParameter;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
 
 /**
  * NOTE: There should only be one instance of this class.
+ * <p>
+ * Fonts come pre-rendered from fonts/ when the build baked them (:tools:bakeFonts), that's a texture load
+ * instead of running FreeType over the whole character set. Without them they're rasterized like before.
  */
 public class Assets implements Disposable {
     private final AssetManager manager = new AssetManager();
+    // What's actually loaded for each descriptor, the baked version of a font if there is one.
+    private final ObjectMap<AssetDescriptor<?>, AssetDescriptor<?>> resolved = new ObjectMap<>();
 
     private static AssetDescriptor<Sound> sound(String path) {
         return new AssetDescriptor<>(path, Sound.class);
@@ -43,28 +50,90 @@ public class Assets implements Disposable {
     public static final AssetDescriptor<BitmapFont> BEDSTEAD30 = font("bedstead30.otf", "bedstead.otf", 30);
     public static final AssetDescriptor<BitmapFont> BEDSTEAD60 = font("bedstead60.otf", "bedstead.otf", 60);
 
+    /**
+     * Assets are loaded a group at a time, in this order.
+     */
+    public enum Group {
+        // What the title screen needs, so it can show up as soon as possible.
+        TITLE(BEDSTEAD30, SELECT, START),
+        GAME(BOOM1, BOOM2, BOOM3, BOOWOMP, EXPLOSION, PEW, PUT, RESPAWN, THRUSTER, BEDSTEAD60);
+
+        private final AssetDescriptor<?>[] descriptors;
+
+        Group(AssetDescriptor<?>... descriptors) {
+            this.descriptors = descriptors;
+        }
+    }
+
+    /**
+     * Queues everything, nothing is loaded until update() is called.
+     */
     public Assets() {
         var resolver = new InternalFileHandleResolver();
         manager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
         manager.setLoader(BitmapFont.class, ".otf", new FreetypeFontLoader(resolver));
 
+        // The manager loads in the order things were queued.
+        for (var group : Group.values()) {
+            for (var descriptor : group.descriptors) {
+                var actual = baked(descriptor);
+                resolved.put(descriptor, actual);
+                manager.load(actual);
+            }
+        }
+    }
 
-        manager.load(BOOM1);
-        manager.load(BOOM2);
-        manager.load(BOOM3);
-        manager.load(BOOWOMP);
-        manager.load(EXPLOSION);
-        manager.load(PEW);
-        manager.load(PUT);
-        manager.load(RESPAWN);
-        manager.load(SELECT);
-        manager.load(START);
-        manager.load(THRUSTER);
+    // bedstead.otf at size 30 is baked to fonts/bedstead30.fnt, see FontBaker.
+    private static AssetDescriptor<?> baked(AssetDescriptor<?> descriptor) {
+        if (!(descriptor.params instanceof FreeTypeFontLoaderParameter parameter)) {
+            return descriptor;
+        }
 
-        manager.load(BEDSTEAD30);
-        manager.load(BEDSTEAD60);
+        var font = Gdx.files.internal(parameter.fontFileName);
+        var path = "fonts/" + font.nameWithoutExtension() + parameter.fontParameters.size + ".fnt";
+        if (!Gdx.files.internal(path).exists()) {
+            return descriptor;
+        }
+        return new AssetDescriptor<>(path, BitmapFont.class);
+    }
 
-        manager.finishLoading();
+    /**
+     * Loads for up to about {@code millis} milliseconds. Returns true once everything is loaded.
+     * A font that isn't baked can take longer than that, it has to be rasterized in one go.
+     */
+    public boolean update(int millis) {
+        return manager.update(millis);
+    }
+
+    public boolean isLoaded(Group group) {
+        for (var descriptor : group.descriptors) {
+            if (!manager.isLoaded(resolved.get(descriptor))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * How much of the group is loaded, 0 to 1.
+     */
+    public float getProgress(Group group) {
+        int loaded = 0;
+        for (var descriptor : group.descriptors) {
+            if (manager.isLoaded(resolved.get(descriptor))) {
+                loaded++;
+            }
+        }
+        return (float) loaded / group.descriptors.length;
+    }
+
+    /**
+     * Blocks until the group is loaded.
+     */
+    public void finishLoading(Group group) {
+        for (var descriptor : group.descriptors) {
+            manager.finishLoadingAsset(resolved.get(descriptor));
+        }
     }
 
     public Sound getSound(AssetDescriptor<Sound> descriptor) {
@@ -72,7 +141,7 @@ public class Assets implements Disposable {
     }
 
     public BitmapFont getFont(AssetDescriptor<BitmapFont> descriptor) {
-        return manager.get(descriptor);
+        return manager.get(resolved.get(descriptor).fileName, BitmapFont.class);
     }
 
     @Override
@@ -2,26 +2,76 @@ package io.github.antonioartigas.geosteroids;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Screen;
+import io.github.antonioartigas.geosteroids.screens.LoadingScreen;
 import io.github.antonioartigas.geosteroids.screens.PlayScreen;
 import io.github.antonioartigas.geosteroids.screens.TitleScreen;
 
+import java.util.function.Function;
+
 public class GeosteroidsGame extends Game {
     public static final int WIDTH = 1280;
     public static final int HEIGHT = 720;
+    // Loading time per frame for whatever hasn't loaded yet, while the title screen is up.
+    private static final int BACKGROUND_LOAD_MILLIS = 4;
+
+    // Null for the title screen, otherwise makes the screen to go straight to (stress test, network game).
+    private final Function<GeosteroidsGame, Screen> startScreen;
 
     private Assets assets;
 
+    // Made once their assets are in.
     public Screen titleScreen;
     public Screen playScreen;
+    public Screen otherScreen;
+
+    public GeosteroidsGame() {
+        this(null);
+    }
+
+    /**
+     * Skips the title screen and goes to the screen made by startScreen once everything is loaded.
+     */
+    public GeosteroidsGame(Function<GeosteroidsGame, Screen> startScreen) {
+        this.startScreen = startScreen;
+    }
 
     @Override
     public void create() {
         assets = new Assets();
 
-        titleScreen = new TitleScreen(this);
-        playScreen = new PlayScreen(this);
-        setScreen(titleScreen);
-//        setScreen(playScreen);
+        if (startScreen != null) {
+            // Assume it needs everything.
+            setScreen(new LoadingScreen(this, Assets.Group.TITLE, () -> new LoadingScreen(this, Assets.Group.GAME,
+                    () -> otherScreen = startScreen.apply(this))));
+            return;
+        }
+
+        // The title screen only needs a few things, the game sounds and big font keep loading behind it.
+        setScreen(new LoadingScreen(this, Assets.Group.TITLE, () -> titleScreen = new TitleScreen(this)));
+    }
+
+    @Override
+    public void render() {
+        assets.update(BACKGROUND_LOAD_MILLIS);
+        super.render();
+    }
+
+    /**
+     * Goes to the game, by way of a loading screen if it isn't loaded yet.
+     */
+    public void startGame() {
+        if (assets.isLoaded(Assets.Group.GAME)) {
+            setScreen(playScreen());
+        } else {
+            setScreen(new LoadingScreen(this, Assets.Group.GAME, this::playScreen));
+        }
+    }
+
+    private Screen playScreen() {
+        if (playScreen == null) {
+            playScreen = new PlayScreen(this);
+        }
+        return playScreen;
     }
 
     public Assets getAssets() {
@@ -30,7 +80,15 @@ public class GeosteroidsGame extends Game {
 
     @Override
     public void dispose() {
-        titleScreen.dispose();
-        playScreen.dispose();
+        if (titleScreen != null) {
+            titleScreen.dispose();
+        }
+        if (playScreen != null) {
+            playScreen.dispose();
+        }
+        if (otherScreen != null) {
+            otherScreen.dispose();
+        }
+        assets.dispose();
     }
 }
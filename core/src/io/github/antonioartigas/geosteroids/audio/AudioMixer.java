@@ -0,0 +1,219 @@
+package io.github.antonioartigas.geosteroids.audio;
+
+import com.badlogic.gdx.audio.Sound;
+import io.github.antonioartigas.geosteroids.game.AudioSink;
+import io.github.antonioartigas.geosteroids.game.Sfx;
+
+import java.util.Arrays;
+
+/**
+ * Sits between the world's events and the sounds so a big split cascade doesn't turn into dozens of
+ * Sound.play() calls in one frame, which runs OpenAL out of sources and stalls the audio thread.
+ * <p>
+ * play() only counts requests. At the end of the frame every sound that was asked for plays once, louder
+ * the more times it was asked for. Each sound has a cap on how many of it can play at once, and there's a
+ * cap on voices overall. When that's full a new sound takes the place of an older, less important one, or
+ * gets dropped if there isn't one. EXPLOSION and BOOWOMP are never dropped.
+ * <p>
+ * The thruster loops on one voice for the whole game, turning it off just pauses it.
+ */
+public class AudioMixer implements AudioSink {
+    // libGDX gets 16 OpenAL sources by default, this leaves some for the thruster and the menus.
+    public static final int MAX_VOICES = 12;
+
+    private static final int PRIORITY_LOW = 0;
+    private static final int PRIORITY_NORMAL = 1;
+    private static final int PRIORITY_HIGH = 2;
+    private static final int PRIORITY_NEVER_DROP = 3;
+    // Playback starts a little after play() and the sample rates don't line up exactly, see lengthNanos().
+    private static final long LENGTH_HEADROOM_NANOS = 50_000_000L;
+
+    private static final Sfx[] SFX = Sfx.values();
+
+    private final SoundBank bank;
+
+    // What was asked for this frame, by Sfx ordinal.
+    private final int[] requests = new int[SFX.length];
+    private final float[] loudest = new float[SFX.length];
+
+    // Sounds that are (probably) still playing. We can't ask OpenAL, so a voice counts until its sound's length is up.
+    private final Sound[] voiceSounds = new Sound[MAX_VOICES];
+    private final long[] voiceIds = new long[MAX_VOICES];
+    private final int[] voiceSfx = new int[MAX_VOICES];
+    private final long[] voiceStarts = new long[MAX_VOICES];
+    private final long[] voiceEnds = new long[MAX_VOICES];
+    private final int[] playing = new int[SFX.length];
+
+    private long thrusterId = -1;
+    private boolean thrusterOn = false;
+
+    public AudioMixer(SoundBank bank) {
+        this.bank = bank;
+        Arrays.fill(voiceSfx, -1);
+    }
+
+    @Override
+    public void play(Sfx sfx, float volume) {
+        int i = sfx.ordinal();
+        requests[i]++;
+        loudest[i] = Math.max(loudest[i], volume);
+    }
+
+    @Override
+    public void setThruster(boolean on) {
+        if (on == thrusterOn) {
+            return;
+        }
+        thrusterOn = on;
+
+        var thruster = bank.getThruster();
+        if (on && thrusterId < 0) {
+            thrusterId = thruster.loop(0.5f);
+        } else if (on) {
+            thruster.resume(thrusterId);
+        } else {
+            thruster.pause(thrusterId);
+        }
+    }
+
+    @Override
+    public void endFrame() {
+        long now = System.nanoTime();
+        expireVoices(now);
+
+        // Most important first, so they get the free voices.
+        for (int priority = PRIORITY_NEVER_DROP; priority >= PRIORITY_LOW; priority--) {
+            for (var sfx : SFX) {
+                int i = sfx.ordinal();
+                if (requests[i] == 0 || priority(sfx) != priority) {
+                    continue;
+                }
+
+                // n of the same sound at once sounds about sqrt(n) times as loud.
+                float volume = Math.min(1f, loudest[i] * (float) Math.sqrt(requests[i]));
+                requests[i] = 0;
+                loudest[i] = 0f;
+
+                int voice = findVoice(sfx);
+                if (voice != -1) {
+                    start(voice, sfx, volume, now);
+                }
+            }
+        }
+    }
+
+    // A voice to play sfx on, stopping something else if needed. -1 drops the sound.
+    private int findVoice(Sfx sfx) {
+        int priority = priority(sfx);
+        int i = sfx.ordinal();
+
+        if (playing[i] >= maxPlaying(sfx)) {
+            if (priority != PRIORITY_NEVER_DROP) {
+                return -1;
+            }
+            // Cut its oldest copy short instead.
+            return stopOldest(i, PRIORITY_NEVER_DROP);
+        }
+
+        for (int voice = 0; voice < MAX_VOICES; voice++) {
+            if (voiceSfx[voice] == -1) {
+                return voice;
+            }
+        }
+
+        // Everything's busy. Take over the oldest voice of the least important sound playing, as long as it
+        // matters less than this one. Sounds that are never dropped can take over anything.
+        int maxVictim = priority == PRIORITY_NEVER_DROP ? PRIORITY_NEVER_DROP : priority - 1;
+        for (int victim = PRIORITY_LOW; victim <= maxVictim; victim++) {
+            int voice = stopOldest(-1, victim);
+            if (voice != -1) {
+                return voice;
+            }
+        }
+        return -1;
+    }
+
+    // Stops the voice of sfx (any sound for -1) with the given priority that started first.
+    // Returns the freed voice, or -1 if there was none.
+    private int stopOldest(int sfx, int priority) {
+        int oldest = -1;
+        for (int voice = 0; voice < MAX_VOICES; voice++) {
+            int playingSfx = voiceSfx[voice];
+            if (playingSfx == -1 || (sfx != -1 && playingSfx != sfx) || priority(SFX[playingSfx]) != priority) {
+                continue;
+            }
+            if (oldest == -1 || voiceStarts[voice] < voiceStarts[oldest]) {
+                oldest = voice;
+            }
+        }
+
+        if (oldest != -1) {
+            voiceSounds[oldest].stop(voiceIds[oldest]);
+            free(oldest);
+        }
+        return oldest;
+    }
+
+    private void start(int voice, Sfx sfx, float volume, long now) {
+        var sound = bank.get(sfx);
+        long id = sound.play(volume);
+        if (id == -1) {
+            // OpenAL had no source left after all.
+            return;
+        }
+
+        voiceSounds[voice] = sound;
+        voiceIds[voice] = id;
+        voiceSfx[voice] = sfx.ordinal();
+        voiceStarts[voice] = now;
+        voiceEnds[voice] = now + lengthNanos(sfx);
+        playing[sfx.ordinal()]++;
+    }
+
+    private void expireVoices(long now) {
+        for (int voice = 0; voice < MAX_VOICES; voice++) {
+            if (voiceSfx[voice] != -1 && voiceEnds[voice] <= now) {
+                free(voice);
+            }
+        }
+    }
+
+    private void free(int voice) {
+        playing[voiceSfx[voice]]--;
+        voiceSounds[voice] = null;
+        voiceSfx[voice] = -1;
+    }
+
+    private static int priority(Sfx sfx) {
+        return switch (sfx) {
+            case EXPLOSION, BOOWOMP -> PRIORITY_NEVER_DROP;
+            case RESPAWN -> PRIORITY_HIGH;
+            case BOOM -> PRIORITY_NORMAL;
+            case PEW, PUT -> PRIORITY_LOW;
+        };
+    }
+
+    private static int maxPlaying(Sfx sfx) {
+        return switch (sfx) {
+            case BOOM -> 4;
+            case PEW -> 3;
+            case PUT -> 2;
+            case EXPLOSION, BOOWOMP, RESPAWN -> 1;
+        };
+    }
+
+    // How long the longest file for each sound is (Sound can't tell), plus LENGTH_HEADROOM_NANOS so a voice is
+    // never given back while OpenAL is still playing the end of it. Update them when the files change.
+    private static long lengthNanos(Sfx sfx) {
+        long length = switch (sfx) {
+            // boom1.wav
+            case BOOM -> 570_000_000L;
+            case BOOWOMP -> 1_208_000_000L;
+            case EXPLOSION -> 1_000_000_000L;
+            // put.wav, pew.wav is 80 ms.
+            case PEW, PUT -> 100_000_000L;
+            case RESPAWN -> 260_000_000L;
+        };
+        return length + LENGTH_HEADROOM_NANOS;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.antonioartigas.geosteroids.audio;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import io.github.antonioartigas.geosteroids.Assets;
+import io.github.antonioartigas.geosteroids.game.Sfx;
+
+/**
+ * Which loaded sound plays for each of the world's sounds. AudioMixer decides when.
+ */
+public class SoundBank {
+    private final Array<Sound> booms;
+    private final Sound boowomp;
+    private final Sound explosion;
+    private final Sound pew;
+    private final Sound put;
+    private final Sound respawn;
+    private final Sound thruster;
+
+    public SoundBank(Assets assets) {
+        booms = new Array<>(3);
+        booms.add(assets.getSound(Assets.BOOM1));
+        booms.add(assets.getSound(Assets.BOOM2));
+        booms.add(assets.getSound(Assets.BOOM3));
+
+        boowomp = assets.getSound(Assets.BOOWOMP);
+        explosion = assets.getSound(Assets.EXPLOSION);
+        pew = assets.getSound(Assets.PEW);
+        put = assets.getSound(Assets.PUT);
+        respawn = assets.getSound(Assets.RESPAWN);
+        thruster = assets.getSound(Assets.THRUSTER);
+    }
+
+    public Sound get(Sfx sfx) {
+        return switch (sfx) {
+            case BOOM -> booms.random();
+            case BOOWOMP -> boowomp;
+            case EXPLOSION -> explosion;
+            case PEW -> pew;
+            case PUT -> put;
+            case RESPAWN -> respawn;
+        };
+    }
+
+    public Sound getThruster() {
+        return thruster;
+    }
+}
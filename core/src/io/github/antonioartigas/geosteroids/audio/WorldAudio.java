@@ -0,0 +1,41 @@
+package io.github.antonioartigas.geosteroids.audio;
+
+import io.github.antonioartigas.geosteroids.game.AudioSink;
+import io.github.antonioartigas.geosteroids.game.GameEvent;
+import io.github.antonioartigas.geosteroids.game.GameEvents;
+import io.github.antonioartigas.geosteroids.game.RenderSnapshot;
+import io.github.antonioartigas.geosteroids.game.Sfx;
+
+/**
+ * Turns the world's events into sounds. Reads everything new once a frame, up to the snapshot being drawn,
+ * and hands it to the sink in one go.
+ */
+public class WorldAudio {
+    private final GameEvents.Cursor events;
+    private final AudioSink sink;
+
+    public WorldAudio(GameEvents events, AudioSink sink) {
+        this.events = events.cursor();
+        this.sink = sink;
+    }
+
+    public void update(RenderSnapshot snapshot) {
+        while (events.next(snapshot.eventsWritten)) {
+            switch (events.type()) {
+                case ASTEROID_DESTROYED -> sink.play(Sfx.BOOM, 1f);
+                case ASTEROID_PLACED -> sink.play(Sfx.PUT, 1f);
+                case BULLET_FIRED -> sink.play(Sfx.PEW, 0.5f);
+                case PLAYER_DIED -> sink.play(Sfx.EXPLOSION, 1f);
+                case PLAYER_RESPAWNED -> sink.play(Sfx.RESPAWN, 0.5f);
+                case GAME_OVER -> sink.play(Sfx.BOOWOMP, 1f);
+                // Only the local player's ship has a thruster sound.
+                case THRUSTER_ON, THRUSTER_OFF -> {
+                    if (events.value() == 0) {
+                        sink.setThruster(events.type() == GameEvent.THRUSTER_ON);
+                    }
+                }
+            }
+        }
+        sink.endFrame();
+    }
+}
@@ -1,7 +1,9 @@
 package io.github.antonioartigas.geosteroids.entities;
 
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import io.github.antonioartigas.geosteroids.game.ShapeGeometry;
+
+import java.util.Arrays;
 
 /**
  * The antagonist of the game...
@@ -9,22 +11,73 @@ import com.badlogic.gdx.math.Vector2;
  * We'll just draw these as regular shapes. Like pentagons, hexagons, heptagons, and uh other -agons.
  * Also by regular I mean the symmetrical shapes.
  * <p>
- * BUT their collisions are circles! (Makes life easier)
- * Usually smaller than the polygon to be nicer.
+ * The hitbox is the circle around the polygon, only good for throwing out things that are nowhere near.
+ * Anything that gets past it is checked against the polygon itself (see Sweep), so what you see is what
+ * you hit.
+ * <p>
+ * The shape only changes in init(), so pooled asteroids can be reused. init() also works out the outline
+ * and its edge normals once, drawing and collisions just move them to wherever the asteroid is.
  */
 public class Asteroid extends Entity {
-    public final int sides;
-    public final float shapeRadius;
-    public final float rotation;
+    // How much bigger every stage gets.
+    public static final float STAGE_RADIUS = 15f;
+
+    public int sides;
+    public float shapeRadius;
+    public float rotation;
 
     public int stage;
 
-    public Asteroid(Vector2 position, Vector2 velocity, int sides, float shapeRadius, float radius, int stage) {
-        super(position, velocity, radius);
+    // Polygon points around the center, already rotated. Only the first sides * 2 floats are used.
+    public final float[] outline = new float[ShapeGeometry.ASTEROID_FLOATS];
+    // Outward unit normal of the edge from point i to point i + 1, same layout as outline.
+    public final float[] normals = new float[ShapeGeometry.ASTEROID_FLOATS];
+
+    public Asteroid() {
+    }
+
+    /**
+     * The circle around a stage's polygon, which is also its hitbox.
+     */
+    public static float radius(int stage) {
+        return stage * STAGE_RADIUS;
+    }
+
+    public Asteroid(Vector2 position, Vector2 velocity, int sides, float shapeRadius, float radius, int stage, float rotation) {
+        init(position.x, position.y, velocity.x, velocity.y, sides, shapeRadius, radius, stage, rotation);
+    }
+
+    /**
+     * @param sides    0 for an asteroid without a shape, like the raw entries in EntityStore. It gets no
+     *                 outline then, only its hitbox.
+     * @param rotation In degrees. Comes from the caller so the world's random numbers stay in one place.
+     */
+    public Asteroid init(float x, float y, float velocityX, float velocityY, int sides, float shapeRadius, float radius, int stage, float rotation) {
+        init(x, y, velocityX, velocityY, radius);
 
         this.sides = sides;
         this.shapeRadius = shapeRadius;
-        rotation = MathUtils.random() * 360f;
+        this.rotation = rotation;
         this.stage = stage;
+        if (sides == 0) {
+            Arrays.fill(outline, 0f);
+            Arrays.fill(normals, 0f);
+        } else {
+            ShapeGeometry.asteroidOutline(sides, shapeRadius, rotation, outline);
+            ShapeGeometry.edgeNormals(outline, sides, normals);
+        }
+
+        return this;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        sides = 0;
+        shapeRadius = 0f;
+        rotation = 0f;
+        stage = 0;
+        Arrays.fill(outline, 0f);
+        Arrays.fill(normals, 0f);
     }
 }
@@ -6,18 +6,30 @@ import com.badlogic.gdx.math.Vector2;
 public class Bullet extends Entity {
     public static final float MOVE_SPEED = 400f;
     public static final float MAX_LIFETIME = 2f;
+    public static final float RADIUS = 1f;
 
     private float lifetime = 0f;
 
+    public Bullet() {
+    }
+
     public Bullet(Vector2 position, Vector2 velocity, float radius, float rotation) {
-        super(
-                position, new Vector2(velocity)
-                        .add(
-                                MathUtils.cosDeg(rotation) * MOVE_SPEED,
-                                MathUtils.sinDeg(rotation) * MOVE_SPEED
-                        ).clamp(MOVE_SPEED, MOVE_SPEED * 1.5f),
-                radius
-        );
+        init(position.x, position.y, velocity, radius, rotation);
+    }
+
+    /**
+     * Fires the bullet from (x, y). It keeps the velocity of whatever shot it.
+     */
+    public Bullet init(float x, float y, Vector2 velocity, float radius, float rotation) {
+        init(x, y, velocity.x, velocity.y, radius);
+        this.velocity
+                .add(
+                        MathUtils.cosDeg(rotation) * MOVE_SPEED,
+                        MathUtils.sinDeg(rotation) * MOVE_SPEED
+                ).clamp(MOVE_SPEED, MOVE_SPEED * 1.5f);
+        lifetime = 0f;
+
+        return this;
     }
 
     public void update(float delta) {
@@ -26,7 +38,21 @@ public class Bullet extends Entity {
         super.update(delta);
     }
 
+    public float getLifetime() {
+        return lifetime;
+    }
+
+    public void setLifetime(float lifetime) {
+        this.lifetime = lifetime;
+    }
+
     public boolean isAlive() {
         return lifetime <= MAX_LIFETIME;
     }
+
+    @Override
+    public void reset() {
+        super.reset();
+        lifetime = 0f;
+    }
 }
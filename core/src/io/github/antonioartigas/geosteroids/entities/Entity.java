@@ -2,23 +2,43 @@ package io.github.antonioartigas.geosteroids.entities;
 
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
 import io.github.antonioartigas.geosteroids.GeosteroidsGame;
 
-public abstract class Entity {
-    public final Vector2 position;
-    public final Vector2 velocity;
+/**
+ * Entities own their vectors and hitbox, so they can be pooled and set up again with init().
+ * <p>
+ * previousPosition is where the entity was before the last update(), the renderer draws in between the two.
+ * Teleporting (init, setPosition, wrapping around the screen) moves both so nothing gets drawn mid-jump.
+ */
+public abstract class Entity implements Pool.Poolable {
+    public final Vector2 position = new Vector2();
+    public final Vector2 velocity = new Vector2();
+    public final Vector2 previousPosition = new Vector2();
 
-    public final Circle hitbox;
+    public final Circle hitbox = new Circle();
+    // Given by World when it adds the entity, never used twice in the same world. 0 when it isn't in one.
+    public int id = 0;
+
+    protected Entity() {
+    }
 
     public Entity(Vector2 position, Vector2 velocity, float radius) {
-        this.position = position;
-        this.velocity = velocity;
-        this.hitbox = new Circle(position, radius);
+        init(position.x, position.y, velocity.x, velocity.y, radius);
+    }
+
+    protected void init(float x, float y, float velocityX, float velocityY, float radius) {
+        position.set(x, y);
+        previousPosition.set(x, y);
+        velocity.set(velocityX, velocityY);
+        hitbox.set(x, y, radius);
     }
 
     public void update(float delta) {
+        previousPosition.set(position);
         position.mulAdd(velocity, delta);
-        hitbox.setPosition(position);
+        float x = position.x;
+        float y = position.y;
 
         // Left to right.
         if (position.x < -(hitbox.radius * 2)) {
@@ -39,10 +59,25 @@ public abstract class Entity {
         if (position.y > GeosteroidsGame.HEIGHT + hitbox.radius * 2) {
             position.y = -(hitbox.radius * 2);
         }
+
+        if (x != position.x || y != position.y) {
+            previousPosition.set(position);
+        }
+        hitbox.setPosition(position);
     }
 
     public void setPosition(float x, float y) {
         position.set(x, y);
+        previousPosition.set(x, y);
         hitbox.setPosition(x, y);
     }
+
+    @Override
+    public void reset() {
+        position.setZero();
+        previousPosition.setZero();
+        velocity.setZero();
+        hitbox.set(0f, 0f, 0f);
+        id = 0;
+    }
 }
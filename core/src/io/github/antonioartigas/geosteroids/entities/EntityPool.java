@@ -0,0 +1,26 @@
+package io.github.antonioartigas.geosteroids.entities;
+
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps dead entities around so spawning doesn't allocate once the game is warmed up.
+ * <p>
+ * Freed entities get reset() and are kept up to {@code max}, anything past that is left to the GC.
+ */
+public class EntityPool<T extends Entity> extends Pool<T> {
+    private final Supplier<T> factory;
+
+    public EntityPool(Supplier<T> factory, int initialCapacity, int max) {
+        super(initialCapacity, max);
+        this.factory = factory;
+
+        fill(Math.min(initialCapacity, max));
+    }
+
+    @Override
+    protected T newObject() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.antonioartigas.geosteroids.entities;
+
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+
+import java.util.Arrays;
+
+/**
+ * Asteroids and bullets kept as parallel primitive arrays instead of one object per entity.
+ * <p>
+ * Meant for very large entity counts, where chasing an Entity, two Vector2s and a Circle per asteroid
+ * costs more than the math. step() moves, wraps and ages everything in one loop over the arrays.
+ * Removing swaps the last entity into the hole, so indices are only stable until the next remove.
+ * <p>
+ * Code that wants objects can copy an entity out with get() and back in with set().
+ */
+public class EntityStore {
+    public float[] x;
+    public float[] y;
+    public float[] velocityX;
+    public float[] velocityY;
+    public float[] radius;
+    // Seconds alive. Only entities with a max lifetime expire, see expires.
+    public float[] lifetime;
+    public int[] stage;
+    public int[] sides;
+    public float[] shapeRadius;
+    public float[] rotation;
+
+    private final boolean expires;
+    private final float maxLifetime;
+    private int size = 0;
+
+    /**
+     * @param maxLifetime Entities older than this are removed by step(). 0 or less means they never expire.
+     */
+    public EntityStore(int initialCapacity, float maxLifetime) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        radius = new float[capacity];
+        lifetime = new float[capacity];
+        stage = new int[capacity];
+        sides = new int[capacity];
+        shapeRadius = new float[capacity];
+        rotation = new float[capacity];
+
+        expires = maxLifetime > 0f;
+        this.maxLifetime = maxLifetime;
+    }
+
+    public static EntityStore asteroids(int initialCapacity) {
+        return new EntityStore(initialCapacity, 0f);
+    }
+
+    public static EntityStore bullets(int initialCapacity) {
+        return new EntityStore(initialCapacity, Bullet.MAX_LIFETIME);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int add(float x, float y, float velocityX, float velocityY, float radius) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.velocityX[i] = velocityX;
+        this.velocityY[i] = velocityY;
+        this.radius[i] = radius;
+        lifetime[i] = 0f;
+        stage[i] = 0;
+        sides[i] = 0;
+        shapeRadius[i] = 0f;
+        rotation[i] = 0f;
+
+        return i;
+    }
+
+    public int add(Asteroid asteroid) {
+        int i = add(asteroid.position.x, asteroid.position.y, asteroid.velocity.x, asteroid.velocity.y, asteroid.hitbox.radius);
+        stage[i] = asteroid.stage;
+        sides[i] = asteroid.sides;
+        shapeRadius[i] = asteroid.shapeRadius;
+        rotation[i] = asteroid.rotation;
+        return i;
+    }
+
+    public int add(Bullet bullet) {
+        int i = add(bullet.position.x, bullet.position.y, bullet.velocity.x, bullet.velocity.y, bullet.hitbox.radius);
+        lifetime[i] = bullet.getLifetime();
+        return i;
+    }
+
+    /**
+     * Swaps the last entity into {@code index}.
+     */
+    public void remove(int index) {
+        int last = --size;
+        if (index == last) {
+            return;
+        }
+
+        x[index] = x[last];
+        y[index] = y[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        radius[index] = radius[last];
+        lifetime[index] = lifetime[last];
+        stage[index] = stage[last];
+        sides[index] = sides[last];
+        shapeRadius[index] = shapeRadius[last];
+        rotation[index] = rotation[last];
+    }
+
+    /**
+     * Same as Entity.update() for every entity, plus aging. Returns how many entities expired and were removed.
+     */
+    public int step(float delta) {
+        final float width = GeosteroidsGame.WIDTH;
+        final float height = GeosteroidsGame.HEIGHT;
+        final float[] x = this.x;
+        final float[] y = this.y;
+        final float[] velocityX = this.velocityX;
+        final float[] velocityY = this.velocityY;
+        final float[] radius = this.radius;
+        final float[] lifetime = this.lifetime;
+        final int size = this.size;
+
+        // No calls and no branches the JIT can't turn into selects.
+        int expired = 0;
+        for (int i = 0; i < size; i++) {
+            float margin = radius[i] * 2;
+            float px = x[i] + velocityX[i] * delta;
+            float py = y[i] + velocityY[i] * delta;
+
+            px = px < -margin ? width + margin : px;
+            px = px > width + margin ? -margin : px;
+            py = py < -margin ? height + margin : py;
+            py = py > height + margin ? -margin : py;
+
+            x[i] = px;
+            y[i] = py;
+
+            float age = lifetime[i] + delta;
+            lifetime[i] = age;
+            expired += age > maxLifetime ? 1 : 0;
+        }
+
+        if (!expires || expired == 0) {
+            return 0;
+        }
+
+        // Backwards, so whatever gets swapped in was already checked.
+        for (int i = this.size - 1; i >= 0; i--) {
+            if (lifetime[i] > maxLifetime) {
+                remove(i);
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * Copies an asteroid out into {@code out}. One added with just a position and radius comes out with
+     * 0 sides and no outline.
+     */
+    public Asteroid get(int index, Asteroid out) {
+        return out.init(x[index], y[index], velocityX[index], velocityY[index], sides[index], shapeRadius[index], radius[index], stage[index], rotation[index]);
+    }
+
+    /**
+     * Copies a bullet out into {@code out}.
+     */
+    public Bullet get(int index, Bullet out) {
+        out.init(x[index], y[index], velocityX[index], velocityY[index], radius[index]);
+        out.setLifetime(lifetime[index]);
+        return out;
+    }
+
+    /**
+     * Writes an entity back, for code that changed a copy from get().
+     */
+    public void set(int index, Entity entity) {
+        x[index] = entity.position.x;
+        y[index] = entity.position.y;
+        velocityX[index] = entity.velocity.x;
+        velocityY[index] = entity.velocity.y;
+        radius[index] = entity.hitbox.radius;
+
+        if (entity instanceof Asteroid asteroid) {
+            stage[index] = asteroid.stage;
+            sides[index] = asteroid.sides;
+            shapeRadius[index] = asteroid.shapeRadius;
+            rotation[index] = asteroid.rotation;
+        } else if (entity instanceof Bullet bullet) {
+            lifetime[index] = bullet.getLifetime();
+        }
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        lifetime = Arrays.copyOf(lifetime, capacity);
+        stage = Arrays.copyOf(stage, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        shapeRadius = Arrays.copyOf(shapeRadius, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+    }
+}
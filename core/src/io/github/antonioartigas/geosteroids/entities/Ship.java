@@ -1,16 +1,18 @@
 package io.github.antonioartigas.geosteroids.entities;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import io.github.antonioartigas.geosteroids.game.Controls;
 
 public class Ship extends Entity {
     public static final float MAX_MOVE_SPEED = 250f;
-    public static final float ACCEL = 8.5f;
+    // Per second.
+    public static final float ACCEL = 510f;
+    public static final float TURN_SPEED = 300f;
 
     // In degrees!
     public float rotation = 0f;
+    public float previousRotation = 0f;
     public int flicker = 0; // Counter to flicker thrust.
 
     private boolean alive = true;
@@ -23,31 +25,40 @@ public class Ship extends Entity {
         this(position, new Vector2(), 10f);
     }
 
+    /**
+     * Drifts without anyone at the controls.
+     */
     @Override
     public void update(float delta) {
+        update(delta, Controls.NONE);
+    }
+
+    public void update(float delta, int controls) {
+        previousRotation = rotation;
+
         // Rotation and movement.
-        if (Gdx.input.isKeyPressed(Input.Keys.A)) {
-            rotation += 5f;
+        if (Controls.has(controls, Controls.TURN_LEFT)) {
+            rotation += TURN_SPEED * delta;
         }
 
-        if (Gdx.input.isKeyPressed(Input.Keys.D)) {
-            rotation -= 5f;
+        if (Controls.has(controls, Controls.TURN_RIGHT)) {
+            rotation -= TURN_SPEED * delta;
         }
 
-        if (Gdx.input.isKeyPressed(Input.Keys.W)) {
+        if (Controls.has(controls, Controls.THRUST)) {
             flicker++;
             if (flicker > 5) {
                 flicker = -3;
             }
 
             velocity.add(
-                    MathUtils.cosDeg(rotation) * Ship.ACCEL,
-                    MathUtils.sinDeg(rotation) * Ship.ACCEL
+                    MathUtils.cosDeg(rotation) * Ship.ACCEL * delta,
+                    MathUtils.sinDeg(rotation) * Ship.ACCEL * delta
             );
 
             velocity.clamp(0f, Ship.MAX_MOVE_SPEED);
 
-        } else if (!Gdx.input.isKeyPressed(Input.Keys.W)) {
+        } else {
             flicker = 0;
         }
 
@@ -65,4 +76,13 @@ public class Ship extends Entity {
     public void die() {
         alive = false;
     }
+
+    @Override
+    public void reset() {
+        super.reset();
+        rotation = 0f;
+        previousRotation = 0f;
+        flicker = 0;
+        alive = true;
+    }
 }
@@ -0,0 +1,19 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * Where WorldAudio sends the world's sounds.
+ */
+public interface AudioSink {
+    void play(Sfx sfx, float volume);
+
+    /**
+     * The thruster is a looping sound, turned on and off as it changes.
+     */
+    void setThruster(boolean on);
+
+    /**
+     * Called after all of a frame's sounds were handed over, for sinks that gather them up.
+     */
+    default void endFrame() {
+    }
+}
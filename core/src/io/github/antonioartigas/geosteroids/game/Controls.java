@@ -0,0 +1,46 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * What the player wants to do on a tick, packed into the bits of an int.
+ */
+public final class Controls {
+    public static final int THRUST = 1;
+    public static final int TURN_LEFT = 1 << 1;
+    public static final int TURN_RIGHT = 1 << 2;
+    // Only set on the tick the bullet should come out, not while the key is held.
+    public static final int FIRE = 1 << 3;
+    // Debug: put an asteroid at the cursor, which is packed in the bits above these.
+    public static final int SPAWN_ASTEROID = 1 << 4;
+    public static final int SPAWN_STILL_ASTEROID = 1 << 5;
+
+    public static final int NONE = 0;
+
+    // 11 bits each, plenty for a 1280x720 screen.
+    private static final int CURSOR_X_SHIFT = 6;
+    private static final int CURSOR_Y_SHIFT = 17;
+    private static final int CURSOR_MASK = (1 << 11) - 1;
+
+    private Controls() {
+    }
+
+    public static boolean has(int controls, int control) {
+        return (controls & control) != 0;
+    }
+
+    /**
+     * Packs a cursor position into the controls, for the spawn controls. Clamped to the range that fits.
+     */
+    public static int withCursor(int controls, int x, int y) {
+        x = Math.clamp(x, 0, CURSOR_MASK);
+        y = Math.clamp(y, 0, CURSOR_MASK);
+        return controls | x << CURSOR_X_SHIFT | y << CURSOR_Y_SHIFT;
+    }
+
+    public static int cursorX(int controls) {
+        return controls >>> CURSOR_X_SHIFT & CURSOR_MASK;
+    }
+
+    public static int cursorY(int controls) {
+        return controls >>> CURSOR_Y_SHIFT & CURSOR_MASK;
+    }
+}
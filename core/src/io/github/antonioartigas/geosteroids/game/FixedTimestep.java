@@ -0,0 +1,63 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * Turns variable frame times into a whole number of fixed simulation ticks.
+ * <p>
+ * Leftover time stays in the accumulator for the next frame, getAlpha() tells the renderer how far
+ * it is between the last tick and the next one. If a frame is so slow that it would need more than
+ * maxStepsPerFrame ticks, the extra time is dropped so the game slows down instead of spiraling.
+ */
+public class FixedTimestep {
+    private float stepSeconds;
+    private int maxStepsPerFrame;
+    private float accumulator = 0f;
+
+    public FixedTimestep(int tickRate, int maxStepsPerFrame) {
+        setTickRate(tickRate);
+        setMaxStepsPerFrame(maxStepsPerFrame);
+    }
+
+    /**
+     * Adds the frame time and returns how many ticks to run this frame.
+     */
+    public int advance(float delta) {
+        accumulator += delta;
+
+        int steps = (int) (accumulator / stepSeconds);
+        if (steps > maxStepsPerFrame) {
+            steps = maxStepsPerFrame;
+            // Too far behind, don't try to catch up later either.
+            accumulator = stepSeconds * steps;
+        }
+
+        accumulator -= stepSeconds * steps;
+        return steps;
+    }
+
+    /**
+     * How far between the previous and the current tick we are, 0 to 1.
+     */
+    public float getAlpha() {
+        return Math.min(accumulator / stepSeconds, 1f);
+    }
+
+    public float getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public void setTickRate(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive, got " + tickRate);
+        }
+
+        stepSeconds = 1f / tickRate;
+    }
+
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        this.maxStepsPerFrame = Math.max(1, maxStepsPerFrame);
+    }
+
+    public void reset() {
+        accumulator = 0f;
+    }
+}
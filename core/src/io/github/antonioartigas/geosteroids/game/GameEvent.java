@@ -0,0 +1,23 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * What World reports through GameEvents. Each event has a position and a number, what they mean depends on the type.
+ */
+public enum GameEvent {
+    // Where it was, value is its stage.
+    ASTEROID_DESTROYED,
+    // Put down with the mouse, where.
+    ASTEROID_PLACED,
+    // Where it came from, value is the ship that fired it.
+    BULLET_FIRED,
+    // Where the ship was, value is the lives it has left.
+    PLAYER_DIED,
+    // Value is the ship.
+    PLAYER_RESPAWNED,
+    GAME_OVER,
+    // A ship's thruster turning on and off, only sent when it changes. Value is the ship.
+    THRUSTER_ON,
+    THRUSTER_OFF;
+
+    static final GameEvent[] VALUES = values();
+}
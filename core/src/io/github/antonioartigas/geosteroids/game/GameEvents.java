@@ -0,0 +1,161 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * What happened in the world, for everything that reacts to it without being part of the simulation
+ * (sound, the renderer's effects and so on).
+ * <p>
+ * World writes events into a ring of plain arrays as they happen and never waits on anyone. Everyone who
+ * wants them gets their own Cursor and reads whatever is new once a frame, however many ticks that was.
+ * A reader that falls more than CAPACITY events behind loses the oldest ones.
+ * Nothing here allocates after construction.
+ * <p>
+ * Readers can be on another thread than the World (see Simulation), as long as they only read up to a
+ * count they got from the world's thread safely, like RenderSnapshot.eventsWritten, with next(until).
+ * The count is written with release semantics and checked again after each read, so an event the world
+ * wrote over in the meantime is dropped instead of read half old and half new. That works like a seqlock:
+ * the count that says a slot is being reused has to be visible before anything is written into it.
+ */
+public class GameEvents {
+    // A power of two, positions wrap with a mask.
+    public static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final VarHandle WRITTEN;
+
+    static {
+        try {
+            WRITTEN = MethodHandles.lookup().findVarHandle(GameEvents.class, "written", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final byte[] types = new byte[CAPACITY];
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private final int[] values = new int[CAPACITY];
+    // Events written so far, the next one goes at written & MASK.
+    private long written = 0;
+
+    void add(GameEvent type, float x, float y, int value) {
+        // The last add()'s count goes out before this slot changes, otherwise a reader could see the new
+        // event in it while the count still says the old one is there.
+        VarHandle.storeStoreFence();
+        int i = (int) (written & MASK);
+        types[i] = (byte) type.ordinal();
+        xs[i] = x;
+        ys[i] = y;
+        values[i] = value;
+        // Readers on other threads must see the event before the count that includes it.
+        WRITTEN.setRelease(this, written + 1);
+    }
+
+    void add(GameEvent type) {
+        add(type, 0f, 0f, 0);
+    }
+
+    /**
+     * A new reader, which sees everything written from now on.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Reads events in the order they were written:
+     * <pre>
+     * while (cursor.next()) {
+     *     switch (cursor.type()) { ... }
+     * }
+     * </pre>
+     */
+    public class Cursor {
+        private long position = written;
+        private long dropped = 0;
+
+        private GameEvent type;
+        private float x;
+        private float y;
+        private int value;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next event. False when there's nothing new.
+         */
+        public boolean next() {
+            return next(written);
+        }
+
+        /**
+         * Moves to the next event of the first {@code until} ever written. For reading from another thread
+         * than the world's, see the class comment.
+         */
+        public boolean next(long until) {
+            while (position < until) {
+                if (until - position > CAPACITY) {
+                    // Those were already written over.
+                    dropped += until - position - CAPACITY;
+                    position = until - CAPACITY;
+                }
+
+                int i = (int) (position & MASK);
+                byte typeIndex = types[i];
+                x = xs[i];
+                y = ys[i];
+                value = values[i];
+
+                // If the world got round to this slot again while we read it (it starts on it once the
+                // count gets there), it's garbage.
+                VarHandle.acquireFence();
+                long latest = (long) WRITTEN.getAcquire(GameEvents.this);
+                position++;
+                if (latest - (position - 1) >= CAPACITY) {
+                    dropped++;
+                    continue;
+                }
+
+                type = GameEvent.VALUES[typeIndex];
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Jumps past everything written so far. Works from any thread.
+         */
+        public void skip() {
+            position = (long) WRITTEN.getAcquire(GameEvents.this);
+        }
+
+        public GameEvent type() {
+            return type;
+        }
+
+        public float x() {
+            return x;
+        }
+
+        public float y() {
+            return y;
+        }
+
+        public int value() {
+            return value;
+        }
+
+        /**
+         * Events this reader missed because it fell too far behind.
+         */
+        public long getDropped() {
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * Where the player's controls come from. World asks once per tick.
+ */
+public interface InputSource {
+    InputSource NONE = () -> Controls.NONE;
+
+    /**
+     * @return The Controls bits for the tick that's about to run.
+     */
+    int poll();
+}
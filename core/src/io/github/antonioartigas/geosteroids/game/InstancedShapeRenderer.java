@@ -0,0 +1,190 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.Arrays;
+
+/**
+ * Draws the outlines of asteroids, bullets and ships with GL3 instancing instead of ShapeRenderer.
+ * <p>
+ * Every shape is uploaded once as a static line loop. Per frame we only fill in x, y, rotation and scale
+ * for every instance and draw each shape in one call (more if there are more than INSTANCES_PER_DRAW of it),
+ * so the CPU side barely grows with the entity count. The vertex shader does the rotating and moving.
+ * <p>
+ * Needs GL 3 (see isSupported()), Renderer falls back to ShapeRenderer without it.
+ */
+public class InstancedShapeRenderer implements Disposable {
+    public static final int INSTANCES_PER_DRAW = 4096;
+    // x, y, rotation in radians, scale.
+    private static final int INSTANCE_FLOATS = 4;
+    // What ShapeRenderer.circle() uses for a radius 1 circle.
+    private static final int BULLET_SEGMENTS = 6;
+
+    // Written in the old GLSL style like SpriteBatch's shaders. The GL 3.2 context is a core profile, so
+    // DesktopLauncher sets ShaderProgram.prependVertexCode/prependFragmentCode to turn these into GLSL 150.
+    private static final String VERTEX_SHADER = """
+            attribute vec2 a_position;
+            attribute vec4 a_instance;
+            uniform mat4 u_projTrans;
+
+            void main() {
+                float c = cos(a_instance.z);
+                float s = sin(a_instance.z);
+                vec2 rotated = vec2(a_position.x * c - a_position.y * s, a_position.x * s + a_position.y * c);
+                gl_Position = u_projTrans * vec4(rotated * a_instance.w + a_instance.xy, 0.0, 1.0);
+            }
+            """;
+
+    private static final String FRAGMENT_SHADER = """
+            #ifdef GL_ES
+            precision mediump float;
+            #endif
+
+            void main() {
+                gl_FragColor = vec4(1.0);
+            }
+            """;
+
+    private final ShaderProgram shader;
+    // Indexed by side count, only MIN_ASTEROID_SIDES to MAX_ASTEROID_SIDES are filled in.
+    private final Shape[] asteroids = new Shape[ShapeGeometry.MAX_ASTEROID_SIDES + 1];
+    private final Shape bullet;
+    private final Shape ship;
+    private final Shape thruster;
+
+    private boolean drawing = false;
+
+    public InstancedShapeRenderer() {
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Couldn't compile the instancing shader: " + shader.getLog());
+        }
+
+        for (int sides = ShapeGeometry.MIN_ASTEROID_SIDES; sides <= ShapeGeometry.MAX_ASTEROID_SIDES; sides++) {
+            asteroids[sides] = new Shape(ShapeGeometry.unitPolygon(sides));
+        }
+
+        var circle = new float[BULLET_SEGMENTS * 2];
+        for (int i = 0; i < BULLET_SEGMENTS; i++) {
+            circle[i * 2] = MathUtils.cos(MathUtils.PI2 * i / BULLET_SEGMENTS);
+            circle[i * 2 + 1] = MathUtils.sin(MathUtils.PI2 * i / BULLET_SEGMENTS);
+        }
+        bullet = new Shape(circle);
+
+        ship = new Shape(Arrays.copyOfRange(ShapeGeometry.SHIP_SHAPE, 0, 6));
+        thruster = new Shape(Arrays.copyOfRange(ShapeGeometry.SHIP_SHAPE, 6, 12));
+    }
+
+    /**
+     * True when the GL context can do instanced drawing.
+     */
+    public static boolean isSupported() {
+        return Gdx.gl30 != null;
+    }
+
+    public void begin(Matrix4 projection) {
+        if (drawing) {
+            throw new IllegalStateException("end() must be called before begin()");
+        }
+
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+        drawing = true;
+    }
+
+    /**
+     * @param rotation In degrees, like Asteroid.rotation.
+     */
+    public void asteroid(int sides, float x, float y, float rotation, float shapeRadius) {
+        asteroids[sides].add(x, y, rotation * MathUtils.degreesToRadians, shapeRadius);
+    }
+
+    public void bullet(float x, float y, float radius) {
+        bullet.add(x, y, 0f, radius);
+    }
+
+    /**
+     * @param rotation In degrees, like Ship.rotation.
+     */
+    public void ship(float x, float y, float rotation, boolean thrusting) {
+        float radians = rotation * MathUtils.degreesToRadians;
+        ship.add(x, y, radians, 1f);
+        if (thrusting) {
+            thruster.add(x, y, radians, 1f);
+        }
+    }
+
+    /**
+     * Draws everything added since begin().
+     */
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("begin() must be called before end()");
+        }
+
+        for (int sides = ShapeGeometry.MIN_ASTEROID_SIDES; sides <= ShapeGeometry.MAX_ASTEROID_SIDES; sides++) {
+            asteroids[sides].flush();
+        }
+        bullet.flush();
+        ship.flush();
+        thruster.flush();
+
+        drawing = false;
+    }
+
+    @Override
+    public void dispose() {
+        for (int sides = ShapeGeometry.MIN_ASTEROID_SIDES; sides <= ShapeGeometry.MAX_ASTEROID_SIDES; sides++) {
+            asteroids[sides].mesh.dispose();
+        }
+        bullet.mesh.dispose();
+        ship.mesh.dispose();
+        thruster.mesh.dispose();
+        shader.dispose();
+    }
+
+    // One static outline plus the instances waiting to be drawn with it.
+    private class Shape {
+        final Mesh mesh;
+        final float[] instances = new float[INSTANCES_PER_DRAW * INSTANCE_FLOATS];
+        int count = 0;
+
+        Shape(float[] outline) {
+            mesh = new Mesh(true, outline.length / 2, 0, new VertexAttribute(Usage.Position, 2, "a_position"));
+            mesh.setVertices(outline);
+            mesh.enableInstancedRendering(false, INSTANCES_PER_DRAW, new VertexAttribute(Usage.Generic, INSTANCE_FLOATS, "a_instance"));
+        }
+
+        void add(float x, float y, float rotation, float scale) {
+            if (count == INSTANCES_PER_DRAW) {
+                flush();
+            }
+
+            int i = count * INSTANCE_FLOATS;
+            instances[i] = x;
+            instances[i + 1] = y;
+            instances[i + 2] = rotation;
+            instances[i + 3] = scale;
+            count++;
+        }
+
+        void flush() {
+            if (count == 0) {
+                return;
+            }
+
+            mesh.setInstanceData(instances, 0, count * INSTANCE_FLOATS);
+            mesh.render(shader, GL20.GL_LINE_LOOP);
+            count = 0;
+        }
+    }
+}
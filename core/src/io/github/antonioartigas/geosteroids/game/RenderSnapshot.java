@@ -0,0 +1,173 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import io.github.antonioartigas.geosteroids.profiling.Phase;
+
+import java.util.Arrays;
+
+/**
+ * Everything the renderer, the particles and the sound need from one World tick, copied into plain arrays
+ * so they can be read on another thread while the world moves on (see Simulation). capture() fills it on
+ * the world's thread, everyone else only reads it.
+ * <p>
+ * Arrays only grow, so once they're big enough capturing doesn't allocate. Asteroid outlines are only
+ * copied when a different asteroid or shape ends up in a slot, most of the time it's the same one as last time.
+ */
+public class RenderSnapshot {
+    // System.nanoTime() the tick was due at, for interpolating when the world ticks on its own thread.
+    public long tickNanos;
+    // GameEvents.getWritten() after the tick, read events up to here with next(until).
+    public long eventsWritten;
+    public int score;
+    // Of ship 0, the one this game's player flies.
+    public int lives;
+    public boolean paused;
+    public boolean gameOver;
+    // What the world's profiler timed since the last snapshot the reader picked up, by Phase ordinal.
+    public final long[] simNanos = new long[Phase.values().length];
+
+    public int shipCount;
+    public boolean[] shipAlive = new boolean[0];
+    public float[] shipX = new float[0];
+    public float[] shipY = new float[0];
+    public float[] shipPreviousX = new float[0];
+    public float[] shipPreviousY = new float[0];
+    public float[] shipVelocityX = new float[0];
+    public float[] shipVelocityY = new float[0];
+    public float[] shipRotation = new float[0];
+    public float[] shipPreviousRotation = new float[0];
+    public float[] shipRadius = new float[0];
+    public int[] shipFlicker = new int[0];
+
+    public int asteroidCount;
+    public int[] asteroidIds = new int[0];
+    public int[] asteroidSides = new int[0];
+    public float[] asteroidX = new float[0];
+    public float[] asteroidY = new float[0];
+    public float[] asteroidPreviousX = new float[0];
+    public float[] asteroidPreviousY = new float[0];
+    public float[] asteroidRotation = new float[0];
+    public float[] asteroidShapeRadius = new float[0];
+    public float[] asteroidRadius = new float[0];
+    // ShapeGeometry.ASTEROID_FLOATS per asteroid.
+    public float[] asteroidOutlines = new float[0];
+
+    public int bulletCount;
+    public float[] bulletX = new float[0];
+    public float[] bulletY = new float[0];
+    public float[] bulletPreviousX = new float[0];
+    public float[] bulletPreviousY = new float[0];
+
+    /**
+     * Copies the world as it is now. Only call it from the world's thread.
+     *
+     * @param keepTimes Add the profiler's times to simNanos instead of replacing them, when the reader
+     *                  never saw the last ones (see TripleBuffer.publish()).
+     */
+    public void capture(World world, long tickNanos, boolean keepTimes) {
+        this.tickNanos = tickNanos;
+        eventsWritten = world.getEvents().getWritten();
+        score = world.getScore();
+        lives = world.getLives();
+        paused = world.isPaused();
+        gameOver = world.isGameOver();
+        if (!keepTimes) {
+            Arrays.fill(simNanos, 0L);
+        }
+        world.getProfiler().drain(simNanos);
+
+        captureShips(world);
+        captureAsteroids(world);
+        captureBullets(world);
+    }
+
+    private void captureShips(World world) {
+        int count = world.ships.size;
+        if (shipX.length < count) {
+            shipAlive = new boolean[count];
+            shipX = new float[count];
+            shipY = new float[count];
+            shipPreviousX = new float[count];
+            shipPreviousY = new float[count];
+            shipVelocityX = new float[count];
+            shipVelocityY = new float[count];
+            shipRotation = new float[count];
+            shipPreviousRotation = new float[count];
+            shipRadius = new float[count];
+            shipFlicker = new int[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            var ship = world.ships.get(i);
+            shipAlive[i] = ship.isAlive();
+            shipX[i] = ship.position.x;
+            shipY[i] = ship.position.y;
+            shipPreviousX[i] = ship.previousPosition.x;
+            shipPreviousY[i] = ship.previousPosition.y;
+            shipVelocityX[i] = ship.velocity.x;
+            shipVelocityY[i] = ship.velocity.y;
+            shipRotation[i] = ship.rotation;
+            shipPreviousRotation[i] = ship.previousRotation;
+            shipRadius[i] = ship.hitbox.radius;
+            shipFlicker[i] = ship.flicker;
+        }
+        shipCount = count;
+    }
+
+    private void captureAsteroids(World world) {
+        int count = world.asteroids.size;
+        if (asteroidX.length < count) {
+            // Half again as many, they come and go a lot.
+            int capacity = count + count / 2;
+            asteroidIds = Arrays.copyOf(asteroidIds, capacity);
+            asteroidSides = new int[capacity];
+            asteroidX = new float[capacity];
+            asteroidY = new float[capacity];
+            asteroidPreviousX = new float[capacity];
+            asteroidPreviousY = new float[capacity];
+            asteroidRotation = new float[capacity];
+            asteroidShapeRadius = new float[capacity];
+            asteroidRadius = new float[capacity];
+            asteroidOutlines = Arrays.copyOf(asteroidOutlines, capacity * ShapeGeometry.ASTEROID_FLOATS);
+        }
+
+        for (int i = 0; i < count; i++) {
+            var asteroid = world.asteroids.get(i);
+            // An id can come back after a rewind (readState() puts the counter back) on an asteroid with a
+            // different shape, so the shape itself has to match too: sides, size and rotation.
+            if (asteroidIds[i] != asteroid.id || asteroid.id == 0 || asteroidSides[i] != asteroid.sides
+                    || asteroidShapeRadius[i] != asteroid.shapeRadius || asteroidRotation[i] != asteroid.rotation) {
+                asteroidIds[i] = asteroid.id;
+                System.arraycopy(asteroid.outline, 0, asteroidOutlines, i * ShapeGeometry.ASTEROID_FLOATS, asteroid.sides * 2);
+            }
+            asteroidSides[i] = asteroid.sides;
+            asteroidX[i] = asteroid.position.x;
+            asteroidY[i] = asteroid.position.y;
+            asteroidPreviousX[i] = asteroid.previousPosition.x;
+            asteroidPreviousY[i] = asteroid.previousPosition.y;
+            asteroidRotation[i] = asteroid.rotation;
+            asteroidShapeRadius[i] = asteroid.shapeRadius;
+            asteroidRadius[i] = asteroid.hitbox.radius;
+        }
+        asteroidCount = count;
+    }
+
+    private void captureBullets(World world) {
+        int count = world.bullets.size;
+        if (bulletX.length < count) {
+            int capacity = count + count / 2;
+            bulletX = new float[capacity];
+            bulletY = new float[capacity];
+            bulletPreviousX = new float[capacity];
+            bulletPreviousY = new float[capacity];
+        }
+
+        for (int i = 0; i < count; i++) {
+            var bullet = world.bullets.get(i);
+            bulletX[i] = bullet.position.x;
+            bulletY[i] = bullet.position.y;
+            bulletPreviousX[i] = bullet.previousPosition.x;
+            bulletPreviousY[i] = bullet.previousPosition.y;
+        }
+        bulletCount = count;
+    }
+}
@@ -12,17 +12,31 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import io.github.antonioartigas.geosteroids.Assets;
 import io.github.antonioartigas.geosteroids.GeosteroidsGame;
-import io.github.antonioartigas.geosteroids.entities.Asteroid;
-import io.github.antonioartigas.geosteroids.entities.Bullet;
-
-public class Renderer implements Disposable, WorldListener {
+import io.github.antonioartigas.geosteroids.particles.ParticleEffects;
+import io.github.antonioartigas.geosteroids.particles.ParticleMesh;
+import io.github.antonioartigas.geosteroids.particles.Particles;
+import io.github.antonioartigas.geosteroids.profiling.FrameProfiler;
+import io.github.antonioartigas.geosteroids.profiling.Phase;
+import io.github.antonioartigas.geosteroids.profiling.ProfilerOverlay;
+
+/**
+ * Draws the world from RenderSnapshots, never the World itself, so it can run on another thread than the
+ * simulation (see Simulation). Nothing in render() allocates once the game is going, the score text is only
+ * laid out again when the score changes.
+ */
+public class Renderer implements Disposable {
     public static final boolean DEBUG = false;
+    // Instanced drawing is used when the GL context supports it, -Dgeosteroids.instanced=false forces ShapeRenderer.
+    public static final boolean INSTANCED = !"false".equals(System.getProperty("geosteroids.instanced"));
+    // Most particles alive at once, -Dgeosteroids.particles=0 turns them off.
+    public static final int PARTICLE_BUDGET = Integer.getInteger("geosteroids.particles", Particles.DEFAULT_BUDGET);
 
-    private final World world;
+    private final GameEvents.Cursor events;
     private final BitmapFont smallFont;
     private final BitmapFont bigFont;
 
@@ -31,9 +45,19 @@ public class Renderer implements Disposable, WorldListener {
 
     private final ShapeRenderer shapes;
     private final SpriteBatch batch;
+    // Null when drawing through ShapeRenderer.
+    private final InstancedShapeRenderer instanced;
+    // All null when particles are off.
+    private final Particles particles;
+    private final ParticleEffects effects;
+    private final ParticleMesh particleMesh;
+    private final FrameProfiler profiler;
+    private final ProfilerOverlay profilerOverlay;
 
     private float shake = 0;
     private final Vector2 center;
+    private final float[] shipVertices = new float[ShapeGeometry.SHIP_FLOATS];
+    private final float[] asteroidVertices = new float[ShapeGeometry.ASTEROID_FLOATS];
     private final Vector2 shakeOffset;
 
     private boolean showRespawnCircle = false;
@@ -42,9 +66,18 @@ public class Renderer implements Disposable, WorldListener {
     private boolean gameIsOver = false;
     private final GlyphLayout gameOverText;
     private final GlyphLayout quitText;
-
-    public Renderer(Assets assets, World world) {
-        this.world = world;
+    private final GlyphLayout pausedText;
+    // Only laid out again when the score changes.
+    private final GlyphLayout scoreText = new GlyphLayout();
+    private final StringBuilder scoreString = new StringBuilder(16);
+    private int shownScore = -1;
+
+    /**
+     * @param events The world's, only read as far as each snapshot says.
+     * @param profiler Gets the drawing phases.
+     */
+    public Renderer(Assets assets, GameEvents events, FrameProfiler profiler) {
+        this.events = events.cursor();
         smallFont = assets.getFont(Assets.BEDSTEAD30);
         bigFont = assets.getFont(Assets.BEDSTEAD60);
 
@@ -55,90 +88,158 @@ public class Renderer implements Disposable, WorldListener {
 
         shapes = new ShapeRenderer();
         batch = new SpriteBatch();
+        this.profiler = profiler;
+        profilerOverlay = new ProfilerOverlay(smallFont, profiler);
+        instanced = INSTANCED && InstancedShapeRenderer.isSupported() ? new InstancedShapeRenderer() : null;
+        if (PARTICLE_BUDGET > 0) {
+            particles = new Particles(PARTICLE_BUDGET);
+            effects = new ParticleEffects(events, particles);
+            particleMesh = new ParticleMesh(PARTICLE_BUDGET);
+        } else {
+            particles = null;
+            effects = null;
+            particleMesh = null;
+        }
 
         center = new Vector2(GeosteroidsGame.WIDTH / 2f, GeosteroidsGame.HEIGHT / 2f);
         shakeOffset = new Vector2();
 
         gameOverText = new GlyphLayout(bigFont, "GAME OVER");
         quitText = new GlyphLayout(smallFont, "ESC to quit");
+        pausedText = new GlyphLayout(bigFont, "PAUSED");
     }
 
-    @Override
-    public void playerDied(int lives) {
-        shake = 100f;
-        if (lives > 0) {
-            showRespawnCircle = true;
+    // Catches up on what happened up to the snapshot.
+    private void readEvents(RenderSnapshot snapshot) {
+        while (events.next(snapshot.eventsWritten)) {
+            switch (events.type()) {
+                case PLAYER_DIED -> {
+                    shake = 100f;
+                    if (events.value() > 0) {
+                        showRespawnCircle = true;
+                    }
+                }
+                case PLAYER_RESPAWNED -> {
+                    showRespawnCircle = false;
+                    respawnCircleRadius = 0f;
+                }
+                case GAME_OVER -> gameIsOver = true;
+                default -> {
+                }
+            }
         }
     }
 
-    @Override
-    public void playerRespawn() {
-        showRespawnCircle = false;
-        respawnCircleRadius = 0f;
-    }
-
-    @Override
-    public void gameOver() {
-        gameIsOver = true;
-    }
-
     public void resize(int width, int height) {
         viewport.update(width, height);
     }
 
-    private void drawShip(Vector2 position, float rotation, int flicker) {
-        // Ship shape.
-        Vector2 leftUpper = new Vector2(position.x - 10, position.y + 10).rotateAroundDeg(position, rotation);
-        Vector2 front = new Vector2(position.x + 10, position.y).rotateAroundDeg(position, rotation);
-        Vector2 leftLower = new Vector2(position.x - 10, position.y - 10).rotateAroundDeg(position, rotation);
-
-        // Thruster shape.
-        Vector2 thrustA = new Vector2(position.x - 10, position.y + 5).rotateAroundDeg(position, rotation);
-        Vector2 thrustB = new Vector2(position.x - 15, position.y).rotateAroundDeg(position, rotation);
-        Vector2 thrustC = new Vector2(position.x - 10, position.y - 5).rotateAroundDeg(position, rotation);
+    private void drawShip(float x, float y, float rotation, int flicker) {
+        float[] v = shipVertices;
+        ShapeGeometry.ship(x, y, rotation, v);
 
         // Draw both shapes.
         shapes.triangle(
-                leftUpper.x, leftUpper.y,
-                front.x, front.y,
-                leftLower.x, leftLower.y,
+                v[0], v[1],
+                v[2], v[3],
+                v[4], v[5],
                 Color.WHITE, Color.WHITE, Color.WHITE
         );
 
         // Only draw the thruster sometimes. update() changes flicker variable.
         if (flicker > 1) {
             shapes.triangle(
-                    thrustA.x, thrustA.y,
-                    thrustB.x, thrustB.y,
-                    thrustC.x, thrustC.y,
+                    v[6], v[7],
+                    v[8], v[9],
+                    v[10], v[11],
                     Color.WHITE, Color.WHITE, Color.WHITE
             );
         }
     }
 
-    private void drawAsteroid(Asteroid asteroid) {
-        float[] points = new float[asteroid.sides * 2];
+    private void drawShapes(RenderSnapshot snapshot, float alpha) {
+        for (int i = 0; i < snapshot.shipCount; i++) {
+            if (snapshot.shipAlive[i]) {
+                drawShip(
+                        MathUtils.lerp(snapshot.shipPreviousX[i], snapshot.shipX[i], alpha),
+                        MathUtils.lerp(snapshot.shipPreviousY[i], snapshot.shipY[i], alpha),
+                        MathUtils.lerp(snapshot.shipPreviousRotation[i], snapshot.shipRotation[i], alpha),
+                        snapshot.shipFlicker[i]
+                );
+            }
+        }
 
-        Vector2 forward = new Vector2(asteroid.shapeRadius, 0);
-        float rotateBy = 360f / asteroid.sides;
-        for (int i = 0; i < points.length; i += 2) {
-            forward.setAngleDeg(rotateBy * (i / 2f) + asteroid.rotation);
-            points[i] = forward.x + asteroid.position.x;
-            points[i + 1] = forward.y + asteroid.position.y;
+        for (int i = 0; i < snapshot.asteroidCount; i++) {
+            float x = MathUtils.lerp(snapshot.asteroidPreviousX[i], snapshot.asteroidX[i], alpha);
+            float y = MathUtils.lerp(snapshot.asteroidPreviousY[i], snapshot.asteroidY[i], alpha);
+            int count = ShapeGeometry.asteroid(snapshot.asteroidOutlines, i * ShapeGeometry.ASTEROID_FLOATS,
+                    snapshot.asteroidSides[i], x, y, asteroidVertices);
+            shapes.polygon(asteroidVertices, 0, count);
+            // Show the hitbox debug.
+            if (DEBUG) {
+                shapes.circle(x, y, snapshot.asteroidRadius[i]);
+            }
+        }
+
+        for (int i = 0; i < snapshot.bulletCount; i++) {
+            shapes.circle(
+                    MathUtils.lerp(snapshot.bulletPreviousX[i], snapshot.bulletX[i], alpha),
+                    MathUtils.lerp(snapshot.bulletPreviousY[i], snapshot.bulletY[i], alpha),
+                    1f
+            );
         }
 
-        shapes.polygon(points);
-        // Show the hitbox debug.
-        if (DEBUG) {
-            shapes.circle(asteroid.position.x, asteroid.position.y, asteroid.hitbox.radius);
+        // Draw lives.
+        for (int i = 0; i < snapshot.lives; i++) {
+            drawShip(18 + 30 * i, GeosteroidsGame.HEIGHT - 50, 90, 0);
         }
     }
 
-    private void drawBullet(Bullet bullet) {
-        shapes.circle(bullet.position.x, bullet.position.y, 1f);
+    // Same as drawShapes(), but only collects instances, the GPU does the rest.
+    private void drawInstanced(RenderSnapshot snapshot, float alpha) {
+        instanced.begin(camera.combined);
+
+        for (int i = 0; i < snapshot.shipCount; i++) {
+            if (snapshot.shipAlive[i]) {
+                instanced.ship(
+                        MathUtils.lerp(snapshot.shipPreviousX[i], snapshot.shipX[i], alpha),
+                        MathUtils.lerp(snapshot.shipPreviousY[i], snapshot.shipY[i], alpha),
+                        MathUtils.lerp(snapshot.shipPreviousRotation[i], snapshot.shipRotation[i], alpha),
+                        snapshot.shipFlicker[i] > 1
+                );
+            }
+        }
+
+        for (int i = 0; i < snapshot.asteroidCount; i++) {
+            instanced.asteroid(
+                    snapshot.asteroidSides[i],
+                    MathUtils.lerp(snapshot.asteroidPreviousX[i], snapshot.asteroidX[i], alpha),
+                    MathUtils.lerp(snapshot.asteroidPreviousY[i], snapshot.asteroidY[i], alpha),
+                    snapshot.asteroidRotation[i],
+                    snapshot.asteroidShapeRadius[i]
+            );
+        }
+
+        for (int i = 0; i < snapshot.bulletCount; i++) {
+            instanced.bullet(
+                    MathUtils.lerp(snapshot.bulletPreviousX[i], snapshot.bulletX[i], alpha),
+                    MathUtils.lerp(snapshot.bulletPreviousY[i], snapshot.bulletY[i], alpha),
+                    1f
+            );
+        }
+
+        for (int i = 0; i < snapshot.lives; i++) {
+            instanced.ship(18 + 30 * i, GeosteroidsGame.HEIGHT - 50, 90, false);
+        }
+
+        instanced.end();
     }
 
-    public void render() {
+    /**
+     * @param alpha How far we are between the snapshot's tick and the one before, entities are drawn in between.
+     */
+    public void render(RenderSnapshot snapshot, float alpha) {
+        readEvents(snapshot);
         ScreenUtils.clear(0f, 0f, 0f, 1f);
 
         if (shake > 1f) {
@@ -151,30 +252,20 @@ public class Renderer implements Disposable, WorldListener {
 
         viewport.apply();
 
-        shapes.setProjectionMatrix(camera.combined);
-        shapes.begin(ShapeType.Line);
-
-        var player = world.player;
-        if (player.isAlive()) {
-            drawShip(player.position, player.rotation, player.flicker);
-        }
-
-        for (var asteroid : world.asteroids) {
-            drawAsteroid(asteroid);
+        long start = profiler.start();
+        if (instanced != null) {
+            drawInstanced(snapshot, alpha);
         }
 
-        for (var bullet : world.bullets) {
-            drawBullet(bullet);
-        }
+        shapes.setProjectionMatrix(camera.combined);
+        shapes.begin(ShapeType.Line);
 
-        // Draw lives.
-        for (int i = 0; i < world.getLives(); i++) {
-            int x = 18 + 30 * i;
-            drawShip(new Vector2(x, GeosteroidsGame.HEIGHT - 50), 90, 0);
+        if (instanced == null) {
+            drawShapes(snapshot, alpha);
         }
 
-        if (DEBUG) {
-            shapes.circle(player.position.x, player.position.y, player.hitbox.radius);
+        if (DEBUG && snapshot.shipCount > 0) {
+            shapes.circle(snapshot.shipX[0], snapshot.shipY[0], snapshot.shipRadius[0]);
         }
 
         if (showRespawnCircle) {
@@ -184,16 +275,37 @@ public class Renderer implements Disposable, WorldListener {
         }
 
         shapes.end();
+        profiler.stop(Phase.SHAPES, start);
+
+        start = profiler.start();
+        if (particles != null) {
+            // They stand still while the game's paused, like everything else.
+            effects.update(snapshot, snapshot.paused ? 0f : Gdx.graphics.getDeltaTime());
+            particleMesh.draw(particles, camera.combined);
+        }
+        profiler.stop(Phase.PARTICLES, start);
 
         // Render text on top of the game.
+        start = profiler.start();
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
-        smallFont.draw(batch, Integer.toString(world.getScore()), 10, GeosteroidsGame.HEIGHT - 10);
+        if (snapshot.score != shownScore) {
+            shownScore = snapshot.score;
+            scoreString.setLength(0);
+            scoreString.append(shownScore);
+            scoreText.setText(smallFont, scoreString);
+        }
+        smallFont.draw(batch, scoreText, 10, GeosteroidsGame.HEIGHT - 10);
 
         if (gameIsOver) {
             bigFont.draw(batch, gameOverText, GeosteroidsGame.WIDTH / 2f - gameOverText.width / 2f, GeosteroidsGame.HEIGHT / 2f + gameOverText.height / 2f);
             smallFont.draw(batch, quitText, GeosteroidsGame.WIDTH / 2f - quitText.width / 2f, GeosteroidsGame.HEIGHT / 2f - 50);
+        } else if (snapshot.paused) {
+            bigFont.draw(batch, pausedText, GeosteroidsGame.WIDTH / 2f - pausedText.width / 2f, GeosteroidsGame.HEIGHT / 2f + pausedText.height / 2f);
         }
+        profiler.stop(Phase.TEXT, start);
+
+        profilerOverlay.draw(batch, GeosteroidsGame.WIDTH - 640, GeosteroidsGame.HEIGHT - 10);
         batch.end();
     }
 
@@ -201,5 +313,11 @@ public class Renderer implements Disposable, WorldListener {
     public void dispose() {
         shapes.dispose();
         batch.dispose();
+        if (instanced != null) {
+            instanced.dispose();
+        }
+        if (particleMesh != null) {
+            particleMesh.dispose();
+        }
     }
 }
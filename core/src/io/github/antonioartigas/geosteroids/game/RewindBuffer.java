@@ -0,0 +1,130 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Keeps the World's state after each of the last few ticks, so it can be stepped back (rewind for
+ * debugging, rollback for netcode).
+ * <p>
+ * All the states sit one after another in a single direct buffer that's allocated once. A state that
+ * doesn't fit at the end goes at the start, dropping the oldest ones in its way. How many ticks there
+ * are room for depends on how many entities there are, up to maxTicks.
+ */
+public class RewindBuffer {
+    private final ByteBuffer buffer;
+    private final int maxTicks;
+
+    // Ring of the saved states, oldest at first.
+    private final int[] offsets;
+    private final int[] sizes;
+    private int first = 0;
+    private int count = 0;
+
+    /**
+     * @param maxTicks Most states kept, tick rate times seconds to keep.
+     * @param capacityBytes Room for all of them, see World.getStateSize().
+     */
+    public RewindBuffer(int maxTicks, int capacityBytes) {
+        this.maxTicks = maxTicks;
+        buffer = ByteBuffer.allocateDirect(capacityBytes).order(ByteOrder.nativeOrder());
+        offsets = new int[maxTicks];
+        sizes = new int[maxTicks];
+    }
+
+    /**
+     * Saves the world as it is now, call it after every tick.
+     *
+     * @return False if this one state is bigger than the whole buffer. Everything kept is dropped then,
+     * since there'd be a gap in it.
+     */
+    public boolean record(World world) {
+        int size = world.getStateSize();
+        if (size > buffer.capacity()) {
+            clear();
+            return false;
+        }
+
+        if (count == maxTicks) {
+            dropOldest();
+        }
+        int offset = findRoom(size);
+
+        buffer.limit(buffer.capacity()).position(offset);
+        world.writeState(buffer);
+        if (buffer.position() - offset != size) {
+            throw new IllegalStateException("World wrote " + (buffer.position() - offset) + " bytes, said it'd write " + size);
+        }
+
+        int index = (first + count) % maxTicks;
+        offsets[index] = offset;
+        sizes[index] = size;
+        count++;
+        return true;
+    }
+
+    // Where the next state of size bytes goes, dropping old ones until there's room for it.
+    private int findRoom(int size) {
+        while (count > 0) {
+            int newest = (first + count - 1) % maxTicks;
+            int head = offsets[newest] + sizes[newest];
+            int tail = offsets[first];
+
+            if (offsets[newest] >= tail) {
+                // Not wrapped yet, free space is after the newest and before the oldest.
+                if (head + size <= buffer.capacity()) {
+                    return head;
+                }
+                if (size <= tail) {
+                    return 0;
+                }
+            } else if (head + size <= tail) {
+                // Wrapped, free space is between the newest and the oldest.
+                return head;
+            }
+            dropOldest();
+        }
+        return 0;
+    }
+
+    /**
+     * Puts the world back {@code ticks} ticks before the last recorded state, or as far back as there is.
+     * States newer than that are forgotten, recording carries on from there.
+     *
+     * @return False if there was nothing to go back to.
+     */
+    public boolean rewind(World world, int ticks) {
+        if (count == 0) {
+            return false;
+        }
+
+        count = Math.max(1, count - ticks);
+        int index = (first + count - 1) % maxTicks;
+        int offset = offsets[index];
+        buffer.limit(offset + sizes[index]).position(offset);
+        world.readState(buffer);
+        buffer.limit(buffer.capacity());
+        return true;
+    }
+
+    public void clear() {
+        first = 0;
+        count = 0;
+    }
+
+    private void dropOldest() {
+        first = (first + 1) % maxTicks;
+        count--;
+    }
+
+    /**
+     * How many ticks back rewind() can go.
+     */
+    public int getTickCount() {
+        return Math.max(0, count - 1);
+    }
+
+    public int getCapacityBytes() {
+        return buffer.capacity();
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import com.badlogic.gdx.utils.Pool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Runs World's delayed tasks (asteroid waves, respawning) on simulation time, which only moves when
+ * World ticks. No threads, so it works headless and as fast as the world can be stepped.
+ * <p>
+ * Pending events sit in a binary heap ordered by due time, then by the order they were scheduled.
+ * Events come from a pool and go back once they've run, so scheduling doesn't allocate once warmed up.
+ * <p>
+ * writeState() and readState() save and restore everything pending, see World.writeState(). Tasks can't
+ * be written out, so the caller hands over a table of every task it schedules and they're saved as
+ * their index in it.
+ */
+public class Scheduler {
+    // Time is a sum of tick deltas, so a 5 second delay at 60 ticks a second can land a hair past
+    // tick 300. This much slack makes it fire on that tick instead of the next one.
+    private static final double EPSILON = 1e-6;
+    // Time, sequence and the event count, then task index, due time and sequence per event.
+    private static final int HEADER_BYTES = 8 + 8 + 4;
+    private static final int EVENT_BYTES = 4 + 8 + 8;
+
+    private final Pool<Event> eventPool = new Pool<>(8) {
+        @Override
+        protected Event newObject() {
+            return new Event();
+        }
+    };
+
+    private Event[] heap = new Event[8];
+    private int size = 0;
+    private long sequence = 0;
+    private double time = 0;
+    private boolean paused = false;
+
+    public void schedule(Runnable task, float delaySeconds) {
+        var event = eventPool.obtain();
+        event.task = task;
+        event.dueTime = time + delaySeconds;
+        event.sequence = sequence++;
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = event;
+        siftUp(size++);
+    }
+
+    /**
+     * Moves time forward by one tick and runs whatever came due. Tasks scheduled from a task count
+     * from this tick. Does nothing while paused.
+     */
+    public void tick(float delta) {
+        if (paused) {
+            return;
+        }
+
+        time += delta;
+        while (size > 0 && heap[0].dueTime <= time + EPSILON) {
+            run(poll());
+        }
+    }
+
+    /**
+     * Skips {@code seconds} ahead, even while paused. Events in between run in order, each at its own
+     * due time, so tasks they schedule are timed from there.
+     */
+    public void fastForward(float seconds) {
+        double target = time + seconds;
+        while (size > 0 && heap[0].dueTime <= target + EPSILON) {
+            var event = poll();
+            time = Math.max(time, event.dueTime);
+            run(event);
+        }
+        time = target;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            eventPool.free(heap[i]);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Seconds of simulation time so far.
+     */
+    public float getTime() {
+        return (float) time;
+    }
+
+    public int getPendingCount() {
+        return size;
+    }
+
+    /**
+     * Bytes writeState() needs right now.
+     */
+    public int getStateSize() {
+        return HEADER_BYTES + size * EVENT_BYTES;
+    }
+
+    /**
+     * Writes the time and every pending event. All their tasks have to be in {@code tasks}. Pausing is
+     * up to whoever runs the game, so it isn't part of it.
+     */
+    public void writeState(ByteBuffer buffer, Runnable[] tasks) {
+        buffer.putDouble(time);
+        buffer.putLong(sequence);
+        buffer.putInt(size);
+        // The heap goes out as it is, reading it back in the same order gives the same heap.
+        for (int i = 0; i < size; i++) {
+            var event = heap[i];
+            buffer.putInt(indexOf(event.task, tasks));
+            buffer.putDouble(event.dueTime);
+            buffer.putLong(event.sequence);
+        }
+    }
+
+    /**
+     * Replaces everything pending with what writeState() wrote, using the same task table.
+     */
+    public void readState(ByteBuffer buffer, Runnable[] tasks) {
+        clear();
+        time = buffer.getDouble();
+        sequence = buffer.getLong();
+        int count = buffer.getInt();
+        if (count > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(count, heap.length * 2));
+        }
+        for (int i = 0; i < count; i++) {
+            var event = eventPool.obtain();
+            event.task = tasks[buffer.getInt()];
+            event.dueTime = buffer.getDouble();
+            event.sequence = buffer.getLong();
+            heap[i] = event;
+        }
+        size = count;
+    }
+
+    private static int indexOf(Runnable task, Runnable[] tasks) {
+        for (int i = 0; i < tasks.length; i++) {
+            if (tasks[i] == task) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Task isn't in the table: " + task);
+    }
+
+    private void run(Event event) {
+        var task = event.task;
+        // Back in the pool first, the task may well schedule itself again.
+        eventPool.free(event);
+        task.run();
+    }
+
+    private Event poll() {
+        var first = heap[0];
+        heap[0] = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            siftDown(0);
+        }
+        return first;
+    }
+
+    private void siftUp(int i) {
+        var event = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(event, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    private void siftDown(int i) {
+        var event = heap[i];
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], event)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = event;
+    }
+
+    private static boolean before(Event a, Event b) {
+        return a.dueTime < b.dueTime || (a.dueTime == b.dueTime && a.sequence < b.sequence);
+    }
+
+    private static final class Event implements Pool.Poolable {
+        Runnable task;
+        double dueTime;
+        long sequence;
+
+        @Override
+        public void reset() {
+            task = null;
+        }
+    }
+}
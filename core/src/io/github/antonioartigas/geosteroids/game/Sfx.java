@@ -0,0 +1,14 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * Sounds WorldAudio plays for the world's events. Which file plays is up to the AudioSink.
+ */
+public enum Sfx {
+    // One of the boom sounds, picked at random.
+    BOOM,
+    BOOWOMP,
+    EXPLOSION,
+    PEW,
+    PUT,
+    RESPAWN
+}
@@ -0,0 +1,122 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import com.badlogic.gdx.math.MathUtils;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+
+/**
+ * The vertices Renderer draws. Kept apart from the ShapeRenderer calls so it can be measured without a GL context.
+ */
+public final class ShapeGeometry {
+    // Ship triangle, then thruster triangle. x, y pairs.
+    public static final int SHIP_FLOATS = 12;
+    public static final int MIN_ASTEROID_SIDES = 3;
+    public static final int MAX_ASTEROID_SIDES = 8;
+    // Enough for the biggest asteroid outline.
+    public static final int ASTEROID_FLOATS = MAX_ASTEROID_SIDES * 2;
+
+    // The ship facing right around its center, laid out like ship() writes it. Don't write to it.
+    public static final float[] SHIP_SHAPE = {
+            -10, 10, 10, 0, -10, -10,
+            -10, 5, -15, 0, -10, -5
+    };
+
+    private static final float[][] UNIT_POLYGONS = unitPolygons();
+
+    private ShapeGeometry() {
+    }
+
+    /**
+     * Writes the ship triangle into out[0..5] and the thruster triangle into out[6..11].
+     *
+     * @param rotation In degrees.
+     */
+    public static void ship(float x, float y, float rotation, float[] out) {
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        float[] shape = SHIP_SHAPE;
+        for (int i = 0; i < SHIP_FLOATS; i += 2) {
+            float localX = shape[i];
+            float localY = shape[i + 1];
+            out[i] = x + localX * cos - localY * sin;
+            out[i + 1] = y + localX * sin + localY * cos;
+        }
+    }
+
+    /**
+     * Works out an asteroid's outline around its center, into out[0..sides * 2). Only needs doing when the
+     * shape changes, which is once per spawn (see Asteroid.init()).
+     */
+    public static void asteroidOutline(int sides, float shapeRadius, float rotation, float[] out) {
+        float[] unit = unitPolygon(sides);
+        // Rotate the whole polygon at once, that's the only trig needed.
+        float cos = MathUtils.cosDeg(rotation) * shapeRadius;
+        float sin = MathUtils.sinDeg(rotation) * shapeRadius;
+        for (int i = 0; i < sides * 2; i += 2) {
+            float x = unit[i];
+            float y = unit[i + 1];
+            out[i] = x * cos - y * sin;
+            out[i + 1] = x * sin + y * cos;
+        }
+    }
+
+    /**
+     * Outward unit normals of a counterclockwise polygon's edges, the one for the edge from point i to
+     * point i + 1 at out[i * 2]. Once per spawn like the outline.
+     */
+    public static void edgeNormals(float[] outline, int sides, float[] out) {
+        int count = sides * 2;
+        for (int i = 0; i < count; i += 2) {
+            int next = (i + 2) % count;
+            float edgeX = outline[next] - outline[i];
+            float edgeY = outline[next + 1] - outline[i + 1];
+            float length = (float) Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+            out[i] = edgeY / length;
+            out[i + 1] = -edgeX / length;
+        }
+    }
+
+    /**
+     * Moves an asteroid's cached outline to (x, y), into {@code out}. Returns how many floats were written.
+     */
+    public static int asteroid(Asteroid asteroid, float x, float y, float[] out) {
+        return asteroid(asteroid.outline, 0, asteroid.sides, x, y, out);
+    }
+
+    /**
+     * Same, for an outline stored at {@code offset} in a bigger array (see RenderSnapshot).
+     */
+    public static int asteroid(float[] outline, int offset, int sides, float x, float y, float[] out) {
+        int count = sides * 2;
+        for (int i = 0; i < count; i += 2) {
+            out[i] = outline[offset + i] + x;
+            out[i + 1] = outline[offset + i + 1] + y;
+        }
+
+        return count;
+    }
+
+    /**
+     * Radius 1 polygon with the first point at angle 0, shared between callers so don't write to it.
+     */
+    public static float[] unitPolygon(int sides) {
+        if (sides < MIN_ASTEROID_SIDES || sides > MAX_ASTEROID_SIDES) {
+            throw new IllegalArgumentException("Asteroids have " + MIN_ASTEROID_SIDES + " to " + MAX_ASTEROID_SIDES + " sides, not " + sides);
+        }
+        return UNIT_POLYGONS[sides];
+    }
+
+    // Indexed by side count.
+    private static float[][] unitPolygons() {
+        var polygons = new float[MAX_ASTEROID_SIDES + 1][];
+        for (int sides = MIN_ASTEROID_SIDES; sides <= MAX_ASTEROID_SIDES; sides++) {
+            var polygon = new float[sides * 2];
+            for (int i = 0; i < sides; i++) {
+                double angle = Math.PI * 2 * i / sides;
+                polygon[i * 2] = (float) Math.cos(angle);
+                polygon[i * 2 + 1] = (float) Math.sin(angle);
+            }
+            polygons[sides] = polygon;
+        }
+        return polygons;
+    }
+}
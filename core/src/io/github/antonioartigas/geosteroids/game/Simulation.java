@@ -0,0 +1,207 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Steps a World and publishes a RenderSnapshot after every tick through a TripleBuffer, so drawing never
+ * looks at the world itself.
+ * <p>
+ * With start(true) the world ticks on its own thread at the tick rate, and the render thread draws the
+ * newest snapshot while the next tick is being worked out, so a frame costs about the slower of the two
+ * instead of both added up. With start(false) the caller runs tick() itself, like it used to.
+ * <p>
+ * Once started only this thread touches the world. Pausing, rewinding and profiling are asked for with
+ * the setters, which take effect on the next tick.
+ */
+public class Simulation implements Runnable {
+    // More than this many ticks behind and the thread stops trying to catch up.
+    private static final int MAX_TICKS_BEHIND = 5;
+
+    private final World world;
+    private final float stepSeconds;
+    private final long stepNanos;
+    // Null when rewinding is off.
+    private final RewindBuffer rewind;
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    // Null or run once on the world's thread, on the tick the game ends.
+    private Consumer<World> onGameOver;
+    private boolean gameOverSeen = false;
+    // The buffer the world's thread got back last time was never read, its times have to be kept.
+    private boolean keepTimes = false;
+    private long tickNanos = 0;
+
+    private volatile boolean paused = false;
+    private volatile boolean rewinding = false;
+    private volatile boolean profiling = false;
+    private volatile boolean running = false;
+    private volatile RuntimeException failure;
+    private Thread thread;
+
+    /**
+     * @param rewind Recorded after every tick and used by setRewinding(), or null.
+     */
+    public Simulation(World world, int tickRate, RewindBuffer rewind) {
+        this.world = world;
+        this.rewind = rewind;
+        stepSeconds = 1f / tickRate;
+        stepNanos = 1_000_000_000L / tickRate;
+    }
+
+    /**
+     * Publishes the first snapshot, and with {@code threaded} starts ticking on a thread of its own.
+     * Start the world first.
+     */
+    public void start(boolean threaded) {
+        tickNanos = System.nanoTime();
+        if (rewind != null) {
+            rewind.record(world);
+        }
+        publish();
+
+        if (threaded) {
+            running = true;
+            thread = new Thread(this, "simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                tickNanos = next;
+                tick();
+
+                next += stepNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (wait < -stepNanos * MAX_TICKS_BEHIND) {
+                    // Slow down instead of spiraling, like FixedTimestep does.
+                    next = System.nanoTime();
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * One tick, then a new snapshot. Only call it yourself after start(false).
+     */
+    public void tick() {
+        var profiler = world.getProfiler();
+        if (profiler.isEnabled() != profiling) {
+            profiler.setEnabled(profiling);
+        }
+
+        boolean wasPaused = world.isPaused();
+        boolean rewound = rewinding && rewind != null && !world.isGameOver() && rewind.rewind(world, 1);
+        // The pause flag isn't part of the world state, so it survives a rewind as it was. Either way it
+        // follows what was asked for last.
+        if (world.isPaused() != paused && !world.isGameOver()) {
+            world.setPaused(paused);
+        }
+
+        if (!rewound && !world.isPaused()) {
+            world.update(stepSeconds);
+            if (rewind != null) {
+                rewind.record(world);
+            }
+            if (world.isGameOver() && !gameOverSeen) {
+                gameOverSeen = true;
+                if (onGameOver != null) {
+                    onGameOver.accept(world);
+                }
+            }
+        } else if (!rewound && wasPaused) {
+            // Nothing moved, the last snapshot is still right. Not publishing also keeps getAlpha() at 1.
+            return;
+        }
+
+        if (thread == null) {
+            tickNanos = System.nanoTime();
+        }
+        publish();
+    }
+
+    private void publish() {
+        snapshots.getBack().capture(world, tickNanos, keepTimes);
+        keepTimes = snapshots.publish();
+    }
+
+    /**
+     * Render thread. Picks up the newest snapshot if there is one.
+     *
+     * @return True if getSnapshot() changed, its simNanos haven't been counted yet then.
+     * @throws IllegalStateException If the simulation thread died.
+     */
+    public boolean update() {
+        if (failure != null) {
+            throw new IllegalStateException("The simulation thread died", failure);
+        }
+        return snapshots.update();
+    }
+
+    /**
+     * Render thread. The newest snapshot as of the last update(), don't hold on to it past the next one.
+     */
+    public RenderSnapshot getSnapshot() {
+        return snapshots.getFront();
+    }
+
+    /**
+     * Render thread, with start(true). How far between snapshot's tick and the next one we are now, 0 to 1.
+     */
+    public float getAlpha(RenderSnapshot snapshot) {
+        return MathUtils.clamp((System.nanoTime() - snapshot.tickNanos) / (float) stepNanos, 0f, 1f);
+    }
+
+    /**
+     * Stops the thread and waits for it, the world can be used from the calling thread after.
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * For anything that has to see the world at the end, like finishing a replay. Set it before start().
+     */
+    public void setOnGameOver(Consumer<World> onGameOver) {
+        this.onGameOver = onGameOver;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * While on, every tick goes one tick back instead of forward, if there's a RewindBuffer.
+     */
+    public void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
+    }
+
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    public boolean isThreaded() {
+        return thread != null;
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the screen, used so collision checks only look at things that are close by.
+ * <p>
+ * Items are just ints (an index into whatever array the caller keeps) with a circle attached.
+ * The grid is meant to be cleared and filled again every tick, items can be added or removed in between.
+ * <p>
+ * Entities wrap around the screen and can sit up to twice their radius past the edges (see Entity.update()),
+ * so cells are picked modulo the grid size. Something hanging off the left edge ends up in the cells on the
+ * right edge. That only adds candidates to a query, the exact overlap test throws them away.
+ */
+public class SpatialGrid {
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+
+    // First entry of every cell, -1 when the cell is empty.
+    private final int[] cellHeads;
+
+    // Entries are linked lists per cell. An item covering several cells has one entry in each.
+    private int[] entryItems = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryCount = 0;
+
+    // The circle of every item, so queries can do the exact test.
+    private float[] itemX = new float[64];
+    private float[] itemY = new float[64];
+    private float[] itemRadius = new float[64];
+    private boolean[] removed = new boolean[64];
+    // Last query that saw each item. Stops items that cover several cells from being reported twice.
+    private int[] stamps = new int[64];
+    private int itemCount = 0;
+    private int queryStamp = 0;
+
+    public SpatialGrid(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        columns = Math.max(1, MathUtils.ceil(width / cellSize));
+        rows = Math.max(1, MathUtils.ceil(height / cellSize));
+
+        cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, -1);
+    }
+
+    public void clear() {
+        Arrays.fill(cellHeads, -1);
+        Arrays.fill(removed, 0, itemCount, false);
+        entryCount = 0;
+        itemCount = 0;
+    }
+
+    public void insert(int item, Circle circle) {
+        ensureItemCapacity(item + 1);
+        itemX[item] = circle.x;
+        itemY[item] = circle.y;
+        itemRadius[item] = circle.radius;
+        removed[item] = false;
+        stamps[item] = 0;
+        itemCount = Math.max(itemCount, item + 1);
+
+        int minColumn = MathUtils.floor((circle.x - circle.radius) / cellSize);
+        int maxColumn = MathUtils.floor((circle.x + circle.radius) / cellSize);
+        int minRow = MathUtils.floor((circle.y - circle.radius) / cellSize);
+        int maxRow = MathUtils.floor((circle.y + circle.radius) / cellSize);
+
+        // Bigger than the whole grid, no need to visit a cell twice.
+        if (maxColumn - minColumn >= columns) {
+            minColumn = 0;
+            maxColumn = columns - 1;
+        }
+        if (maxRow - minRow >= rows) {
+            minRow = 0;
+            maxRow = rows - 1;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            int rowOffset = Math.floorMod(row, rows) * columns;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = rowOffset + Math.floorMod(column, columns);
+
+                if (entryCount == entryItems.length) {
+                    entryItems = Arrays.copyOf(entryItems, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+
+                entryItems[entryCount] = item;
+                entryNext[entryCount] = cellHeads[cell];
+                cellHeads[cell] = entryCount;
+                entryCount++;
+            }
+        }
+    }
+
+    /**
+     * Removed items stay in the cells, queries just skip them.
+     */
+    public void remove(int item) {
+        removed[item] = true;
+    }
+
+    public boolean isRemoved(int item) {
+        return item < itemCount && removed[item];
+    }
+
+    /**
+     * Puts every item overlapping the circle into {@code out}. Clears {@code out} first.
+     */
+    public void query(Circle circle, IntArray out) {
+        out.clear();
+
+        queryStamp++;
+        if (queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+
+        int minColumn = MathUtils.floor((circle.x - circle.radius) / cellSize);
+        int maxColumn = MathUtils.floor((circle.x + circle.radius) / cellSize);
+        int minRow = MathUtils.floor((circle.y - circle.radius) / cellSize);
+        int maxRow = MathUtils.floor((circle.y + circle.radius) / cellSize);
+
+        if (maxColumn - minColumn >= columns) {
+            minColumn = 0;
+            maxColumn = columns - 1;
+        }
+        if (maxRow - minRow >= rows) {
+            minRow = 0;
+            maxRow = rows - 1;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            int rowOffset = Math.floorMod(row, rows) * columns;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int entry = cellHeads[rowOffset + Math.floorMod(column, columns)];
+                while (entry != -1) {
+                    int item = entryItems[entry];
+                    entry = entryNext[entry];
+
+                    if (removed[item] || stamps[item] == queryStamp) {
+                        continue;
+                    }
+                    stamps[item] = queryStamp;
+
+                    // Same test as Circle.overlaps().
+                    float dx = itemX[item] - circle.x;
+                    float dy = itemY[item] - circle.y;
+                    float radiusSum = itemRadius[item] + circle.radius;
+                    if (dx * dx + dy * dy < radiusSum * radiusSum) {
+                        out.add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    private void ensureItemCapacity(int capacity) {
+        if (capacity <= itemX.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, itemX.length * 2);
+        itemX = Arrays.copyOf(itemX, newCapacity);
+        itemY = Arrays.copyOf(itemY, newCapacity);
+        itemRadius = Arrays.copyOf(itemRadius, newCapacity);
+        removed = Arrays.copyOf(removed, newCapacity);
+        stamps = Arrays.copyOf(stamps, newCapacity);
+    }
+}
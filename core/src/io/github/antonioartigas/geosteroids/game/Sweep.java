@@ -0,0 +1,164 @@
+package io.github.antonioartigas.geosteroids.game;
+
+/**
+ * Swept circle (and circle vs polygon) tests, so fast things can't jump over each other between ticks.
+ * <p>
+ * Both circles move in a straight line from their previous to their current position during the tick.
+ * Looking at it from the second circle, the first one moves along d + v * t for t from 0 to 1, where d is
+ * where it starts off relative to the second and v how much it moves relative to it. They touch where that
+ * is closer than the radii added up, a quadratic in t.
+ */
+public final class Sweep {
+    public static final float NO_HIT = -1f;
+
+    private Sweep() {
+    }
+
+    /**
+     * Earliest time in [0, 1] during the tick where the two circles overlap, or NO_HIT.
+     * Already overlapping at the start is a hit at 0.
+     */
+    public static float timeOfImpact(
+            float ax0, float ay0, float ax1, float ay1,
+            float bx0, float by0, float bx1, float by1,
+            float radiusSum
+    ) {
+        float dx = ax0 - bx0;
+        float dy = ay0 - by0;
+        float vx = (ax1 - ax0) - (bx1 - bx0);
+        float vy = (ay1 - ay0) - (by1 - by0);
+
+        float c = dx * dx + dy * dy - radiusSum * radiusSum;
+        if (c < 0f) {
+            return 0f;
+        }
+
+        float a = vx * vx + vy * vy;
+        if (a == 0f) {
+            // Not moving relative to each other, and not touching.
+            return NO_HIT;
+        }
+
+        float b = 2f * (dx * vx + dy * vy);
+        if (b >= 0f) {
+            // Moving apart.
+            return NO_HIT;
+        }
+
+        float discriminant = b * b - 4f * a * c;
+        if (discriminant < 0f) {
+            return NO_HIT;
+        }
+
+        float t = (-b - (float) Math.sqrt(discriminant)) / (2f * a);
+        return t <= 1f ? t : NO_HIT;
+    }
+
+    /**
+     * Earliest time in [0, 1] during the tick where a circle touches a convex polygon, or NO_HIT. The
+     * polygon is given around its center, counterclockwise, with its edge normals (see Asteroid), and
+     * moves along with the center without turning.
+     * <p>
+     * Seen from the polygon the circle's center moves along a line, and it touches the polygon when that
+     * line gets into the polygon grown by the radius: the edges pushed out along their normals, and
+     * circles at the corners. The earliest of those crossings is the hit.
+     * <p>
+     * A lot more work than the circle test, so only worth doing once the bounding circles hit.
+     */
+    public static float timeOfImpact(
+            float ax0, float ay0, float ax1, float ay1, float radius,
+            float bx0, float by0, float bx1, float by1,
+            float[] outline, float[] normals, int sides
+    ) {
+        float dx = ax0 - bx0;
+        float dy = ay0 - by0;
+        float vx = (ax1 - ax0) - (bx1 - bx0);
+        float vy = (ay1 - ay0) - (by1 - by0);
+        float radius2 = radius * radius;
+        int count = sides * 2;
+
+        // Further than the corners plus the radius can't be touching yet, that's most of the time.
+        float reach = (float) Math.sqrt(outline[0] * outline[0] + outline[1] * outline[1]) + radius;
+        if (dx * dx + dy * dy <= reach * reach && overlaps(dx, dy, radius2, outline, normals, count)) {
+            return 0f;
+        }
+
+        float a = vx * vx + vy * vy;
+        if (a == 0f) {
+            return NO_HIT;
+        }
+
+        // The grown polygon is convex, so crossing into one of the pushed out edges is where the circle
+        // gets in, and there's only one. Only when it gets in around a corner are the corners needed.
+        int facing = 0;
+        for (int i = 0; i < count; i += 2) {
+            float nx = normals[i];
+            float ny = normals[i + 1];
+            float towards = vx * nx + vy * ny;
+            if (towards >= 0f) {
+                continue;
+            }
+            facing |= 1 << (i / 2);
+
+            float px = outline[i];
+            float py = outline[i + 1];
+            float t = (radius - ((dx - px) * nx + (dy - py) * ny)) / towards;
+            if (t < 0f || t > 1f) {
+                continue;
+            }
+            // Along the edge from this point, it's length long.
+            int next = (i + 2) % count;
+            float along = (dx + vx * t - px) * -ny + (dy + vy * t - py) * nx;
+            float length = (outline[next] - px) * -ny + (outline[next + 1] - py) * nx;
+            if (along >= 0f && along <= length) {
+                return t;
+            }
+        }
+
+        // The circles around the corners next to an edge facing the move, same quadratic as the circles above.
+        float first = Float.MAX_VALUE;
+        for (int i = 0; i < count; i += 2) {
+            int previous = (i / 2 + sides - 1) % sides;
+            if ((facing & (1 << (i / 2) | 1 << previous)) == 0) {
+                continue;
+            }
+
+            float cx = dx - outline[i];
+            float cy = dy - outline[i + 1];
+            float b = 2f * (cx * vx + cy * vy);
+            if (b >= 0f) {
+                continue;
+            }
+            float discriminant = b * b - 4f * a * (cx * cx + cy * cy - radius2);
+            if (discriminant >= 0f) {
+                first = Math.min(first, (-b - (float) Math.sqrt(discriminant)) / (2f * a));
+            }
+        }
+
+        return first <= 1f ? first : NO_HIT;
+    }
+
+    // Whether a circle at (x, y) touches the polygon already. Inside every edge, or close enough to one of them.
+    private static boolean overlaps(float x, float y, float radius2, float[] outline, float[] normals, int count) {
+        boolean inside = true;
+        for (int i = 0; i < count; i += 2) {
+            float px = x - outline[i];
+            float py = y - outline[i + 1];
+            if (px * normals[i] + py * normals[i + 1] > 0f) {
+                inside = false;
+            }
+
+            // Closest point on the edge.
+            int next = (i + 2) % count;
+            float edgeX = outline[next] - outline[i];
+            float edgeY = outline[next + 1] - outline[i + 1];
+            float t = Math.clamp((px * edgeX + py * edgeY) / (edgeX * edgeX + edgeY * edgeY), 0f, 1f);
+            float ox = px - edgeX * t;
+            float oy = py - edgeY * t;
+            if (ox * ox + oy * oy <= radius2) {
+                return true;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the newest of something from one writer thread to one reader thread without either of them
+ * ever waiting.
+ * <p>
+ * There are three buffers. The writer fills its back one and publish() swaps it with the one in the
+ * middle. The reader's update() swaps its front one with the middle one when there's something new
+ * there. Both swaps are a single atomic getAndSet on the middle index, so each side always has a buffer
+ * all to itself and can never see one half written. A writer faster than the reader just overwrites
+ * middle buffers the reader never picked up.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    // Set on the middle index when the writer put something there the reader hasn't taken yet.
+    private static final int FRESH = 4;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // Only ever touched by their own thread.
+    private int back = 0;
+    private int front = 2;
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * The buffer for the writer to fill. It's the writer's until publish().
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Makes the back buffer the newest one and gives the writer another.
+     *
+     * @return True if the writer got back one the reader never picked up, anything in it that should
+     * add up over time (like timings) should be carried into the next one.
+     */
+    public boolean publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        return (previous & FRESH) != 0;
+    }
+
+    /**
+     * Reader side. Takes the newest published buffer if there's one it hasn't seen yet.
+     *
+     * @return True if getFront() changed.
+     */
+    public boolean update() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * The reader's buffer, it stays the same until update() finds a newer one.
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) buffers[front];
+    }
+}
@@ -1,279 +1,891 @@
 package io.github.antonioartigas.geosteroids.game;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Timer;
-import io.github.antonioartigas.geosteroids.Assets;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import io.github.antonioartigas.geosteroids.GeosteroidsGame;
 import io.github.antonioartigas.geosteroids.entities.Asteroid;
 import io.github.antonioartigas.geosteroids.entities.Bullet;
+import io.github.antonioartigas.geosteroids.entities.Entity;
+import io.github.antonioartigas.geosteroids.entities.EntityPool;
 import io.github.antonioartigas.geosteroids.entities.Ship;
-
+import io.github.antonioartigas.geosteroids.profiling.FrameProfiler;
+import io.github.antonioartigas.geosteroids.profiling.Phase;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The whole simulation. It doesn't touch libGDX's input, audio or timers, so it can also run headless.
+ * Controls come in through the InputSource, and everything that happens goes out through GameEvents for
+ * the sound, the renderer and whoever else wants to know.
+ * <p>
+ * All randomness comes from the world's own seeded generator and delayed tasks run on its own Scheduler,
+ * which follows the ticks. Same seed and same controls every tick always play out the same game, which is
+ * what replays rely on.
+ * <p>
+ * There can be more than one ship, each with its own InputSource and lives, for the network server.
+ * They share the score and the game is over once none of them have lives left. Ship 0 is the player of
+ * a normal game. Every asteroid and bullet gets an id no other one in this world had, see setTrackChanges()
+ * for following them as they come and go.
+ * <p>
+ * writeState() saves everything the simulation depends on into a ByteBuffer and readState() puts it
+ * back, including the random generator and the scheduler, so a restored world plays on exactly like the
+ * original would have. See RewindBuffer.
+ */
 public class World {
     public static final float RESPAWN_CIRCLE_RADIUS = 50f;
-
-    private final Array<Sound> booms;
-    private final Sound boowomp;
-    private final Sound explosion;
-    private final Sound pew;
-    private final Sound put;
-    private final Sound respawn;
-    private final Sound thruster;
+    public static final int DEFAULT_MAX_POOLED_ASTEROIDS = 4096;
+    public static final int DEFAULT_MAX_POOLED_BULLETS = 256;
+    // A stage 3 asteroid is 90 wide, so it lands in up to 4x4 cells and a stage 1 one in up to 2x2, but a
+    // query only has to look at whatever is close. Smaller was faster at 10k entities once the hitboxes
+    // became the circles around the polygons.
+    private static final float GRID_CELL_SIZE = 32f;
+    private static final int MOTION_FLOATS = 5;
+
+    // Bumped when writeState() changes, readState() won't take anything else.
+    public static final int STATE_VERSION = 2;
+    // Version, ship count, random state, score, difficulty, game over, nuke, next id, asteroid and bullet counts.
+    private static final int STATE_HEADER_BYTES = 4 + 4 + 16 + 4 + 4 + 1 + 1 + 4 + 4 + 4;
+    // Lives, in game, thrusting, alive, 6 floats of position, previous position and velocity, rotations, flicker.
+    private static final int SHIP_STATE_BYTES = 4 + 1 + 1 + 1 + 6 * 4 + 2 * 4 + 4;
+    // Id, positions and velocity, sides, stage, shape radius, radius, rotation.
+    private static final int ASTEROID_STATE_BYTES = 4 + 6 * 4 + 1 + 1 + 3 * 4;
+    // Id, positions and velocity, lifetime.
+    private static final int BULLET_STATE_BYTES = 4 + 6 * 4 + 4;
+
+    public static final int LIVES = 3;
+
+    private final InputSource[] inputs;
+    private final GameEvents events = new GameEvents();
+    private final Scheduler scheduler = new Scheduler();
+    private final long seed;
+    private final RandomXS128 random;
 
     final Array<Asteroid> asteroids;
     final Array<Bullet> bullets;
+    // Dead asteroids and bullets go back in here, spawning takes from them.
+    private final EntityPool<Asteroid> asteroidPool;
+    private final EntityPool<Bullet> bulletPool;
+    final Array<Ship> ships;
+    // Ship 0.
     final Ship player;
     final Circle respawnCircle = new Circle(GeosteroidsGame.WIDTH / 2f, GeosteroidsGame.HEIGHT / 2f, RESPAWN_CIRCLE_RADIUS);
     private boolean nukeAsteroidsInCircle = false;
 
-    private WorldListener listener;
-
-    private final Timer timer;
-    private int lives = 3;
+    // Broadphase for the collision checks. Items are indices into asteroids.
+    private final SpatialGrid grid = new SpatialGrid(GeosteroidsGame.WIDTH, GeosteroidsGame.HEIGHT, GRID_CELL_SIZE);
+    private final IntArray hits = new IntArray();
+
+    // Swept collision scratch, see earliestHit().
+    private final Circle sweepBounds = new Circle();
+    private float maxAsteroidStep = 0f;
+    private float hitTime = 0f;
+    private final IntArray pendingBullets = new IntArray();
+    private final IntArray pendingAsteroids = new IntArray();
+    private final FloatArray pendingTimes = new FloatArray();
+    private final IntArray deadBullets = new IntArray();
+    // Previous x, y, x, y and hitbox radius of every asteroid in the grid, by index. Same as on the
+    // asteroids, but side by side so the circle test in earliestHit() doesn't chase four objects per candidate.
+    private float[] asteroidMotion = new float[0];
+
+    // Off until someone turns it on, PlayScreen does with F3.
+    private final FrameProfiler profiler = new FrameProfiler();
+
+    // Made once, the scheduler gets the same ones every time.
+    private final Runnable spawnWave = this::spawnWave;
+    private final Runnable[] respawns;
+    // Everything that goes in the scheduler, for writing it out.
+    private final Runnable[] tasks;
+
+    // Per ship. Ships that aren't in the game (empty server slots) sit dead without lives.
+    private final int[] controls;
+    private final int[] lives;
+    private final boolean[] inGame;
+    // Only so THRUSTER_ON/OFF go out when it changes.
+    private final boolean[] thrusting;
     private int score = 0;
 
-    private long thrusterId = -1;
-
     private float difficulty = 0;
 
     private boolean gameOver = false;
 
-    public World(Assets assets) {
-        booms = new Array<>(3);
-        booms.add(assets.getSound(Assets.BOOM1));
-        booms.add(assets.getSound(Assets.BOOM2));
-        booms.add(assets.getSound(Assets.BOOM3));
+    private int nextEntityId = 1;
+    private boolean trackChanges = false;
+    private final Array<Entity> spawned = new Array<>(false, 64);
+    private final IntArray spawnedIds = new IntArray(false, 64);
+    private final IntArray removedIds = new IntArray(false, 64);
 
-        boowomp = assets.getSound(Assets.BOOWOMP);
-        explosion = assets.getSound(Assets.EXPLOSION);
-        pew = assets.getSound(Assets.PEW);
-        put = assets.getSound(Assets.PUT);
-        respawn = assets.getSound(Assets.RESPAWN);
-        thruster = assets.getSound(Assets.THRUSTER);
+    public World(InputSource input) {
+        this(input, MathUtils.random.nextLong());
+    }
 
-        asteroids = new Array<>();
-        bullets = new Array<>();
+    public World(InputSource input, long seed) {
+        this(input, seed, DEFAULT_MAX_POOLED_ASTEROIDS, DEFAULT_MAX_POOLED_BULLETS);
+    }
+
+    public World(InputSource input, long seed, int maxPooledAsteroids, int maxPooledBullets) {
+        this(new InputSource[]{input}, seed, maxPooledAsteroids, maxPooledBullets);
+        inGame[0] = true;
+        lives[0] = LIVES;
+        player.setAlive(true);
+    }
+
+    /**
+     * A world with a ship for every input, none of which are in the game until join() is called.
+     */
+    public World(InputSource[] inputs, long seed, int maxPooledAsteroids, int maxPooledBullets) {
+        this.inputs = inputs.clone();
+        this.seed = seed;
+        random = new RandomXS128(seed);
+
+        // Order doesn't matter, so removing is just swapping with the last one.
+        asteroids = new Array<>(false, 64);
+        bullets = new Array<>(false, 64);
+        asteroidPool = new EntityPool<>(Asteroid::new, 64, maxPooledAsteroids);
+        bulletPool = new EntityPool<>(Bullet::new, 16, maxPooledBullets);
 
         var center = new Vector2(GeosteroidsGame.WIDTH / 2f, GeosteroidsGame.HEIGHT / 2f);
-        player = new Ship(center);
-        timer = new Timer();
+        int shipCount = inputs.length;
+        ships = new Array<>(true, shipCount);
+        respawns = new Runnable[shipCount];
+        for (int i = 0; i < shipCount; i++) {
+            var ship = new Ship(center);
+            ship.setAlive(false);
+            ships.add(ship);
+
+            int index = i;
+            respawns[i] = () -> respawn(index);
+        }
+        player = ships.first();
+
+        tasks = new Runnable[shipCount + 1];
+        tasks[0] = spawnWave;
+        System.arraycopy(respawns, 0, tasks, 1, shipCount);
+
+        controls = new int[shipCount];
+        lives = new int[shipCount];
+        inGame = new boolean[shipCount];
+        thrusting = new boolean[shipCount];
     }
 
     public void start() {
-        var spawnTask = new Timer.Task() {
-            @Override
-            public void run() {
-                int asteroidsToSpawn = MathUtils.random(2, 5);
-                for (int i = 0; i < asteroidsToSpawn; i++) {
-                    spawnMeteorsInBorder();
-                }
+        scheduler.schedule(spawnWave, 5);
+    }
+
+    private void spawnWave() {
+        int asteroidsToSpawn = randomInt(2, 5);
+        for (int i = 0; i < asteroidsToSpawn; i++) {
+            spawnMeteorsInBorder();
+        }
 
-                difficulty = Math.clamp(difficulty - 0.25f, 1f, 5f);
+        difficulty = Math.clamp(difficulty - 0.25f, 1f, 5f);
 
-                timer.scheduleTask(this, 5 - difficulty);
+        scheduler.schedule(spawnWave, 5 - difficulty);
+    }
+
+    private void respawn(int index) {
+        if (lives[index] <= 0) {
+            if (!gameOver && !anyLivesLeft()) {
+                gameOver = true;
+                events.add(GameEvent.GAME_OVER);
             }
-        };
-        timer.scheduleTask(spawnTask, 5);
+            return;
+        }
+
+        // Otherwise, respawn!
+        nukeAsteroidsInCircle = true;
+
+        var ship = ships.get(index);
+        ship.velocity.setZero();
+        ship.setAlive(true);
+        events.add(GameEvent.PLAYER_RESPAWNED, ship.position.x, ship.position.y, index);
+    }
+
+    private boolean anyLivesLeft() {
+        for (int i = 0; i < lives.length; i++) {
+            if (inGame[i] && lives[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a ship in the game with a full set of lives, it shows up in the middle on the next tick.
+     */
+    public void join(int index) {
+        if (inGame[index]) {
+            return;
+        }
+
+        inGame[index] = true;
+        lives[index] = LIVES;
+        ships.get(index).setPosition(GeosteroidsGame.WIDTH / 2f, GeosteroidsGame.HEIGHT / 2f);
+        scheduler.schedule(respawns[index], 0f);
+    }
+
+    /**
+     * Takes a ship out of the game, it doesn't come back until join().
+     */
+    public void leave(int index) {
+        if (!inGame[index]) {
+            return;
+        }
+
+        inGame[index] = false;
+        lives[index] = 0;
+        ships.get(index).setAlive(false);
+        setThrusting(index, false);
     }
 
     private void spawnMeteorsInBorder() {
-        int side = MathUtils.random(3);
+        int side = randomInt(0, 3);
 
         int x, y;
 
         switch (side) {
             case 0 -> { // Left side.
                 x = -30;
-                y = MathUtils.random(0, GeosteroidsGame.HEIGHT);
+                y = randomInt(0, GeosteroidsGame.HEIGHT);
             }
             case 1 -> { // Right side.
                 x = GeosteroidsGame.WIDTH + 30;
-                y = MathUtils.random(0, GeosteroidsGame.HEIGHT);
+                y = randomInt(0, GeosteroidsGame.HEIGHT);
             }
             case 2 -> { // Top side.
                 y = GeosteroidsGame.HEIGHT + 30;
-                x = MathUtils.random(0, GeosteroidsGame.WIDTH);
+                x = randomInt(0, GeosteroidsGame.WIDTH);
             }
             case 3 -> { // Bottom side.
                 y = -30;
-                x = MathUtils.random(0, GeosteroidsGame.WIDTH);
+                x = randomInt(0, GeosteroidsGame.WIDTH);
             }
 
             default -> throw new IllegalStateException("How did this happen?");
         }
 
-        var position = new Vector2(x, y);
-
-        spawnRandomMeteor(position);
+        spawnRandomMeteor(x, y);
     }
 
-    private void spawnRandomMeteor(Vector2 position) {
-        int stage = MathUtils.random(1, 3);
-        spawnRandomMeteor(position, stage);
+    private void spawnRandomMeteor(float x, float y) {
+        int stage = randomInt(1, 3);
+        spawnRandomMeteor(x, y, stage);
     }
 
-    private void spawnRandomMeteor(Vector2 position, Vector2 velocity) {
-        int stage = MathUtils.random(1, 3);
-        spawnMeteor(position, velocity, stage);
+    private void spawnRandomMeteor(float x, float y, float velocityX, float velocityY) {
+        int stage = randomInt(1, 3);
+        spawnMeteor(x, y, velocityX, velocityY, stage);
     }
 
-    private void spawnRandomMeteor(Vector2 position, int stage) {
-        var velocity = new Vector2(
-                MathUtils.random(-50f, 50f),
-                MathUtils.random(-50f, 50f)
+    private void spawnRandomMeteor(float x, float y, int stage) {
+        spawnMeteor(
+                x, y,
+                randomFloat(-50f, 50f),
+                randomFloat(-50f, 50f),
+                stage
         );
-        spawnMeteor(position, velocity, stage);
     }
 
-    private void spawnMeteor(Vector2 position, Vector2 velocity, int stage) {
-        int sides = MathUtils.random(4, 8);
-        float shapeRadius = stage * 15;
-        float radius = shapeRadius * 0.9f;
-        var asteroid = new Asteroid(position, velocity, sides, shapeRadius, radius, stage);
+    private void spawnMeteor(float x, float y, float velocityX, float velocityY, int stage) {
+        int sides = randomInt(4, 8);
+        float shapeRadius = Asteroid.radius(stage);
+        // The circle around the polygon, the polygon itself decides the hits.
+        float radius = shapeRadius;
+        float rotation = randomFloat(0f, 360f);
+        var asteroid = asteroidPool.obtain().init(x, y, velocityX, velocityY, sides, shapeRadius, radius, stage, rotation);
         asteroids.add(asteroid);
+        addToGrid(asteroids.size - 1, asteroid);
+        spawned(asteroid);
+    }
+
+    private void addBullet(float x, float y, Vector2 velocity, float rotation) {
+        var bullet = bulletPool.obtain().init(x, y, velocity, Bullet.RADIUS, rotation);
+        bullets.add(bullet);
+        spawned(bullet);
+    }
+
+    private void spawned(Entity entity) {
+        entity.id = nextEntityId++;
+        if (trackChanges) {
+            spawned.add(entity);
+            spawnedIds.add(entity.id);
+        }
+    }
+
+    private void removed(Entity entity) {
+        if (trackChanges) {
+            removedIds.add(entity.id);
+        }
     }
 
+    /**
+     * Puts a random asteroid at (x, y). Debug purposes.
+     *
+     * @param moving False to spawn one that stays still.
+     */
+    public void spawnDebugAsteroid(float x, float y, boolean moving) {
+        events.add(GameEvent.ASTEROID_PLACED, x, y, 0);
+        if (moving) {
+            spawnRandomMeteor(x, y);
+        } else {
+            spawnRandomMeteor(x, y, 0f, 0f);
+        }
+    }
+
+    /**
+     * Adds an asteroid as given, no event and no randomness besides its shape.
+     * For tools and benchmarks that build a scene by hand.
+     */
+    public void spawnAsteroid(float x, float y, float velocityX, float velocityY, int stage) {
+        spawnMeteor(x, y, velocityX, velocityY, stage);
+    }
+
+    /**
+     * Adds a bullet flying at {@code rotation} degrees, as if fired by something standing still.
+     */
+    public void spawnBullet(float x, float y, float rotation) {
+        addBullet(x, y, Vector2.Zero, rotation);
+    }
+
+    /**
+     * Runs one simulation tick, delta should be the same every call (see FixedTimestep).
+     * Does nothing while paused, not even reading the input.
+     */
     public void update(float delta) {
-        // Summon an asteroid at the mouse when left-clicked. Debug purposes.
-        if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
-            put.play();
-            var position = new Vector2(Gdx.input.getX(), GeosteroidsGame.HEIGHT - Gdx.input.getY());
-            spawnRandomMeteor(position);
+        if (scheduler.isPaused()) {
+            return;
         }
 
-        // Spawn meteor that doesn't move.
-        if (Gdx.input.isButtonJustPressed(Input.Buttons.RIGHT)) {
-            put.play();
-            var position = new Vector2(Gdx.input.getX(), GeosteroidsGame.HEIGHT - Gdx.input.getY());
-            spawnRandomMeteor(position, new Vector2());
+        long tickStart = profiler.start();
+
+        scheduler.tick(delta);
+        for (int s = 0; s < inputs.length; s++) {
+            int controls = inputs[s].poll();
+            this.controls[s] = controls;
+
+            if (Controls.has(controls, Controls.SPAWN_ASTEROID)) {
+                spawnDebugAsteroid(Controls.cursorX(controls), Controls.cursorY(controls), true);
+            } else if (Controls.has(controls, Controls.SPAWN_STILL_ASTEROID)) {
+                spawnDebugAsteroid(Controls.cursorX(controls), Controls.cursorY(controls), false);
+            }
         }
 
         // Update bullets.
-        var bulletsIter = bullets.iterator();
-        while (bulletsIter.hasNext()) {
-            var bullet = bulletsIter.next();
+        long start = profiler.start();
+        for (int i = bullets.size - 1; i >= 0; i--) {
+            var bullet = bullets.get(i);
             bullet.update(delta);
 
             if (!bullet.isAlive()) {
-                bulletsIter.remove();
+                removed(bullet);
+                bulletPool.free(bullets.removeIndex(i));
             }
         }
-
-        // Asteroid collisions with bullets.
-        var asteroidsIter = asteroids.iterator();
-        while (asteroidsIter.hasNext()) {
-            var asteroid = asteroidsIter.next();
+        profiler.stop(Phase.BULLETS, start);
+
+        // Update asteroids and put them in the grid for the checks below.
+        start = profiler.start();
+        grid.clear();
+        float maxStep2 = 0f;
+        for (int i = 0; i < asteroids.size; i++) {
+            var asteroid = asteroids.get(i);
             asteroid.update(delta);
+            addToGrid(i, asteroid);
+            maxStep2 = Math.max(maxStep2, asteroid.position.dst2(asteroid.previousPosition));
+        }
+        maxAsteroidStep = (float) Math.sqrt(maxStep2);
+        profiler.stop(Phase.ASTEROIDS, start);
+
+        // Asteroid collisions with bullets. Bullets are swept from where they were to where they are, so
+        // they can't skip over an asteroid at low tick rates. Hits are resolved earliest first, so when two
+        // bullets go for the same asteroid the one that gets there first has it.
+        // Destroyed asteroids are only marked in the grid so the indices stay valid,
+        // removeDestroyedAsteroids() takes them out at the end.
+        start = profiler.start();
+        pendingBullets.clear();
+        pendingAsteroids.clear();
+        pendingTimes.clear();
+        for (int i = 0; i < bullets.size; i++) {
+            int hit = earliestHit(bullets.get(i));
+            if (hit != -1) {
+                addPendingHit(i, hit, hitTime);
+            }
+        }
 
-            bulletsIter.reset();
-            while (bulletsIter.hasNext()) {
-                var bullet = bulletsIter.next();
-                if (asteroid.hitbox.overlaps(bullet.hitbox)) {
-                    score += 100;
-                    bulletsIter.remove();
-                    asteroidsIter.remove();
-                    booms.random().play();
-
-                    for (int i = 0; i < asteroid.stage; i++) {
-                        if (asteroid.stage > 1) {
-                            spawnRandomMeteor(asteroid.position.cpy(), asteroid.stage - 1);
-                        }
-                    }
+        deadBullets.clear();
+        for (int i = 0; i < pendingBullets.size; i++) {
+            int bullet = pendingBullets.get(i);
+            int hit = pendingAsteroids.get(i);
+            if (grid.isRemoved(hit)) {
+                // Another bullet got there first, there might be something else further along.
+                hit = earliestHit(bullets.get(bullet));
+                if (hit == -1) {
+                    continue;
+                }
+            }
+
+            var asteroid = asteroids.get(hit);
+            score += 100;
+            deadBullets.add(bullet);
+            grid.remove(hit);
+            events.add(GameEvent.ASTEROID_DESTROYED, asteroid.position.x, asteroid.position.y, asteroid.stage);
+
+            for (int j = 0; j < asteroid.stage; j++) {
+                if (asteroid.stage > 1) {
+                    spawnRandomMeteor(asteroid.position.x, asteroid.position.y, asteroid.stage - 1);
                 }
             }
         }
 
-        // Check for asteroid collisions with player OR circle.
-        asteroidsIter.reset();
-        while (asteroidsIter.hasNext()) {
-            var asteroid = asteroidsIter.next();
-            if (nukeAsteroidsInCircle && asteroid.hitbox.overlaps(respawnCircle)) {
-                asteroidsIter.remove();
-                continue;
+        // Highest index first, removeIndex() swaps the last bullet into the hole.
+        deadBullets.sort();
+        for (int i = deadBullets.size - 1; i >= 0; i--) {
+            var bullet = bullets.removeIndex(deadBullets.get(i));
+            removed(bullet);
+            bulletPool.free(bullet);
+        }
+        profiler.stop(Phase.BULLET_HITS, start);
+
+        // Clear out the asteroids in the circle when the player respawns.
+        start = profiler.start();
+        if (nukeAsteroidsInCircle) {
+            grid.query(respawnCircle, hits);
+            for (int i = 0; i < hits.size; i++) {
+                grid.remove(hits.get(i));
             }
 
-            if (player.isAlive() && asteroid.hitbox.overlaps(player.hitbox)) {
-                player.setAlive(false);
-                thruster.stop(thrusterId);
-                explosion.play();
-                lives--;
-                if (listener != null) {
-                    listener.playerDied(lives);
-                }
-                player.setPosition(
+            nukeAsteroidsInCircle = false;
+        }
+
+        // Check for asteroid collisions with the ships. A ship moved at the end of the last tick and the
+        // asteroids at the start of this one, the sweep lines both moves up as if they happened together.
+        for (int s = 0; s < ships.size; s++) {
+            var ship = ships.get(s);
+            if (ship.isAlive() && earliestHit(ship) != -1) {
+                ship.setAlive(false);
+                setThrusting(s, false);
+                lives[s]--;
+                events.add(GameEvent.PLAYER_DIED, ship.position.x, ship.position.y, lives[s]);
+                ship.setPosition(
                         GeosteroidsGame.WIDTH / 2f,
                         GeosteroidsGame.HEIGHT / 2f
                 );
-                timer.scheduleTask(new Timer.Task() {
-                    @Override
-                    public void run() {
-                        if (lives <= 0) {
-                            if (listener != null) {
-                                boowomp.play();
-                                listener.gameOver();
-                                gameOver = true;
-                            }
-                            return;
-                        }
-
-                        // Otherwise, respawn!
-                        nukeAsteroidsInCircle = true;
-
-                        respawn.play(0.5f);
-                        player.velocity.setZero();
-                        player.setAlive(true);
-                        if (listener != null) {
-                            listener.playerRespawn();
-                        }
-                    }
-                }, 2f);
+                scheduler.schedule(respawns[s], 2f);
             }
         }
+        profiler.stop(Phase.SHIP_HITS, start);
 
-        if (nukeAsteroidsInCircle) {
-            nukeAsteroidsInCircle = false;
+        start = profiler.start();
+        removeDestroyedAsteroids();
+
+        for (int s = 0; s < ships.size; s++) {
+            var ship = ships.get(s);
+            if (!ship.isAlive()) {
+                continue;
+            }
+
+            int controls = this.controls[s];
+            setThrusting(s, Controls.has(controls, Controls.THRUST));
+
+            if (Controls.has(controls, Controls.FIRE)) {
+                // Fire from the tip of the ship.
+                float x = ship.position.x + MathUtils.cosDeg(ship.rotation) * 10f;
+                float y = ship.position.y + MathUtils.sinDeg(ship.rotation) * 10f;
+                addBullet(x, y, ship.velocity, ship.rotation);
+                events.add(GameEvent.BULLET_FIRED, x, y, s);
+            }
+
+            ship.update(delta, controls);
         }
+        profiler.stop(Phase.PLAYER, start);
 
-        if (player.isAlive()) {
-            if (Gdx.input.isKeyPressed(Input.Keys.W)) {
-                if (thrusterId < 0) {
-                    thrusterId = thruster.play(0.5f);
-                    thruster.setLooping(thrusterId, true);
-                }
-            } else if (!Gdx.input.isKeyPressed(Input.Keys.W)) {
-                thruster.stop(thrusterId);
-                thrusterId = -1;
+        profiler.stop(Phase.TICK, tickStart);
+    }
+
+    /**
+     * Index of the first asteroid the entity runs into on its way from previousPosition to position, or -1.
+     * When there is one, hitTime says how far along the tick it happened (0 to 1).
+     */
+    private int earliestHit(Entity mover) {
+        float x0 = mover.previousPosition.x;
+        float y0 = mover.previousPosition.y;
+        float x1 = mover.position.x;
+        float y1 = mover.position.y;
+        float radius = mover.hitbox.radius;
+
+        // The grid only has where the asteroids are now. A circle around the whole move, grown by the
+        // furthest any asteroid moved this tick, catches every asteroid the move could touch.
+        float moveLength = Vector2.len(x1 - x0, y1 - y0);
+        sweepBounds.set((x0 + x1) / 2f, (y0 + y1) / 2f, moveLength / 2f + radius + maxAsteroidStep);
+        grid.query(sweepBounds, hits);
+
+        int first = -1;
+        float firstTime = Float.MAX_VALUE;
+        float[] motion = asteroidMotion;
+        for (int i = 0; i < hits.size; i++) {
+            int hit = hits.get(i);
+            int m = hit * MOTION_FLOATS;
+            // The bounding circles first, most pairs stop here. They can't touch before the circles do, so
+            // anything past the earliest hit so far can't be earlier either.
+            float time = Sweep.timeOfImpact(
+                    x0, y0, x1, y1,
+                    motion[m], motion[m + 1], motion[m + 2], motion[m + 3],
+                    radius + motion[m + 4]
+            );
+            if (time == Sweep.NO_HIT || time >= firstTime) {
+                continue;
             }
 
-            if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-                var front = new Vector2(player.position.x + 10, player.position.y).rotateAroundDeg(player.position, player.rotation);
-                var bullet = new Bullet(front, player.velocity, 1f, player.rotation);
-                bullets.add(bullet);
-                pew.play(0.5f);
+            var asteroid = asteroids.get(hit);
+            time = Sweep.timeOfImpact(
+                    x0, y0, x1, y1, radius,
+                    asteroid.previousPosition.x, asteroid.previousPosition.y, asteroid.position.x, asteroid.position.y,
+                    asteroid.outline, asteroid.normals, asteroid.sides
+            );
+            if (time != Sweep.NO_HIT && time < firstTime) {
+                first = hit;
+                firstTime = time;
             }
+        }
+
+        hitTime = firstTime;
+        return first;
+    }
+
+    private void addToGrid(int index, Asteroid asteroid) {
+        grid.insert(index, asteroid.hitbox);
 
-            player.update(delta);
+        int m = index * MOTION_FLOATS;
+        if (m + MOTION_FLOATS > asteroidMotion.length) {
+            asteroidMotion = Arrays.copyOf(asteroidMotion, Math.max(m + MOTION_FLOATS, asteroidMotion.length * 2));
+        }
+        asteroidMotion[m] = asteroid.previousPosition.x;
+        asteroidMotion[m + 1] = asteroid.previousPosition.y;
+        asteroidMotion[m + 2] = asteroid.position.x;
+        asteroidMotion[m + 3] = asteroid.position.y;
+        asteroidMotion[m + 4] = asteroid.hitbox.radius;
+    }
+
+    // Keeps the pending hits sorted by time, bullets hitting at the same time stay in bullet order.
+    private void addPendingHit(int bullet, int asteroid, float time) {
+        int index = pendingTimes.size;
+        while (index > 0 && pendingTimes.get(index - 1) > time) {
+            index--;
+        }
+
+        pendingBullets.insert(index, bullet);
+        pendingAsteroids.insert(index, asteroid);
+        pendingTimes.insert(index, time);
+    }
+
+    // Same ranges as MathUtils.random(), but from the world's generator.
+    private int randomInt(int start, int end) {
+        return start + random.nextInt(end - start + 1);
+    }
+
+    private float randomFloat(float start, float end) {
+        return start + random.nextFloat() * (end - start);
+    }
+
+    private void removeDestroyedAsteroids() {
+        // Backwards, so whatever gets swapped into a removed slot was already checked.
+        for (int i = asteroids.size - 1; i >= 0; i--) {
+            if (grid.isRemoved(i)) {
+                var asteroid = asteroids.removeIndex(i);
+                removed(asteroid);
+                asteroidPool.free(asteroid);
+            }
+        }
+    }
+
+    private void setThrusting(int index, boolean on) {
+        if (on != thrusting[index]) {
+            thrusting[index] = on;
+            var ship = ships.get(index);
+            events.add(on ? GameEvent.THRUSTER_ON : GameEvent.THRUSTER_OFF, ship.position.x, ship.position.y, index);
+        }
+    }
+
+    /**
+     * Bytes writeState() needs for the world as it is now.
+     */
+    public int getStateSize() {
+        return STATE_HEADER_BYTES + ships.size * SHIP_STATE_BYTES + asteroids.size * ASTEROID_STATE_BYTES
+                + bullets.size * BULLET_STATE_BYTES + scheduler.getStateSize();
+    }
+
+    /**
+     * Writes the whole simulation state at buffer's position, getStateSize() bytes of it. The inputs,
+     * events, profiler, change tracking and whether it's paused aren't part of it.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(STATE_VERSION);
+        buffer.putInt(ships.size);
+        buffer.putLong(random.getState(0));
+        buffer.putLong(random.getState(1));
+        buffer.putInt(score);
+        buffer.putFloat(difficulty);
+        buffer.put((byte) (gameOver ? 1 : 0));
+        buffer.put((byte) (nukeAsteroidsInCircle ? 1 : 0));
+        buffer.putInt(nextEntityId);
+        buffer.putInt(asteroids.size);
+        buffer.putInt(bullets.size);
+
+        for (int s = 0; s < ships.size; s++) {
+            var ship = ships.get(s);
+            buffer.putInt(lives[s]);
+            buffer.put((byte) (inGame[s] ? 1 : 0));
+            buffer.put((byte) (thrusting[s] ? 1 : 0));
+            buffer.put((byte) (ship.isAlive() ? 1 : 0));
+            writeMotion(buffer, ship);
+            buffer.putFloat(ship.rotation);
+            buffer.putFloat(ship.previousRotation);
+            buffer.putInt(ship.flicker);
+        }
+
+        for (int i = 0; i < asteroids.size; i++) {
+            var asteroid = asteroids.get(i);
+            buffer.putInt(asteroid.id);
+            writeMotion(buffer, asteroid);
+            buffer.put((byte) asteroid.sides);
+            buffer.put((byte) asteroid.stage);
+            buffer.putFloat(asteroid.shapeRadius);
+            buffer.putFloat(asteroid.hitbox.radius);
+            buffer.putFloat(asteroid.rotation);
         }
 
-        if (gameOver && Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
-            Gdx.app.exit();
+        for (int i = 0; i < bullets.size; i++) {
+            var bullet = bullets.get(i);
+            buffer.putInt(bullet.id);
+            writeMotion(buffer, bullet);
+            buffer.putFloat(bullet.getLifetime());
         }
+
+        scheduler.writeState(buffer, tasks);
+    }
+
+    /**
+     * Puts the world back the way writeState() found it, reading from buffer's position. Asteroids and
+     * bullets already in the world are reused, so with warm pools this doesn't allocate. Only the
+     * thruster events go out, for whatever changed, and the change tracking doesn't see any of it.
+     *
+     * @throws IllegalArgumentException If the state is from another version or a world with a different number of ships.
+     */
+    public void readState(ByteBuffer buffer) {
+        int version = buffer.getInt();
+        if (version != STATE_VERSION) {
+            throw new IllegalArgumentException("Can't read world state version " + version + ", only " + STATE_VERSION);
+        }
+        int shipCount = buffer.getInt();
+        if (shipCount != ships.size) {
+            throw new IllegalArgumentException("State has " + shipCount + " ships, this world has " + ships.size);
+        }
+
+        long state0 = buffer.getLong();
+        random.setState(state0, buffer.getLong());
+        score = buffer.getInt();
+        difficulty = buffer.getFloat();
+        gameOver = buffer.get() != 0;
+        nukeAsteroidsInCircle = buffer.get() != 0;
+        nextEntityId = buffer.getInt();
+        int asteroidCount = buffer.getInt();
+        int bulletCount = buffer.getInt();
+
+        for (int s = 0; s < ships.size; s++) {
+            var ship = ships.get(s);
+            lives[s] = buffer.getInt();
+            inGame[s] = buffer.get() != 0;
+            boolean wasThrusting = buffer.get() != 0;
+            ship.setAlive(buffer.get() != 0);
+            readMotion(buffer, ship);
+            ship.rotation = buffer.getFloat();
+            ship.previousRotation = buffer.getFloat();
+            ship.flicker = buffer.getInt();
+            setThrusting(s, wasThrusting);
+        }
+
+        while (asteroids.size > asteroidCount) {
+            asteroidPool.free(asteroids.pop());
+        }
+        while (asteroids.size < asteroidCount) {
+            asteroids.add(asteroidPool.obtain());
+        }
+        for (int i = 0; i < asteroidCount; i++) {
+            var asteroid = asteroids.get(i);
+            asteroid.id = buffer.getInt();
+            readMotion(buffer, asteroid);
+            int sides = buffer.get();
+            int stage = buffer.get();
+            float shapeRadius = buffer.getFloat();
+            float radius = buffer.getFloat();
+            float rotation = buffer.getFloat();
+            // Working out the outline again is the expensive bit, most of the time it's the same asteroid.
+            if (sides != asteroid.sides || shapeRadius != asteroid.shapeRadius || rotation != asteroid.rotation) {
+                float previousX = asteroid.previousPosition.x;
+                float previousY = asteroid.previousPosition.y;
+                asteroid.init(asteroid.position.x, asteroid.position.y, asteroid.velocity.x, asteroid.velocity.y,
+                        sides, shapeRadius, radius, stage, rotation);
+                asteroid.previousPosition.set(previousX, previousY);
+            }
+            asteroid.stage = stage;
+            asteroid.hitbox.radius = radius;
+        }
+
+        while (bullets.size > bulletCount) {
+            bulletPool.free(bullets.pop());
+        }
+        while (bullets.size < bulletCount) {
+            bullets.add(bulletPool.obtain());
+        }
+        for (int i = 0; i < bulletCount; i++) {
+            var bullet = bullets.get(i);
+            bullet.id = buffer.getInt();
+            readMotion(buffer, bullet);
+            bullet.hitbox.radius = Bullet.RADIUS;
+            bullet.setLifetime(buffer.getFloat());
+        }
+
+        scheduler.readState(buffer, tasks);
+    }
+
+    private static void writeMotion(ByteBuffer buffer, Entity entity) {
+        buffer.putFloat(entity.position.x);
+        buffer.putFloat(entity.position.y);
+        buffer.putFloat(entity.previousPosition.x);
+        buffer.putFloat(entity.previousPosition.y);
+        buffer.putFloat(entity.velocity.x);
+        buffer.putFloat(entity.velocity.y);
+    }
+
+    private static void readMotion(ByteBuffer buffer, Entity entity) {
+        entity.setPosition(buffer.getFloat(), buffer.getFloat());
+        entity.previousPosition.set(buffer.getFloat(), buffer.getFloat());
+        entity.velocity.set(buffer.getFloat(), buffer.getFloat());
     }
 
-    public void setListener(WorldListener listener) {
-        this.listener = listener;
+    /**
+     * Starts (or stops) keeping lists of the asteroids and bullets added and removed, for the network
+     * server. They build up until clearChanges().
+     */
+    public void setTrackChanges(boolean trackChanges) {
+        this.trackChanges = trackChanges;
+        clearChanges();
+    }
+
+    /**
+     * Entities added since clearChanges(). Some may have been removed (and reused) since, spawnedIds
+     * has the id each had when it was added.
+     */
+    public Array<Entity> getSpawned() {
+        return spawned;
+    }
+
+    public IntArray getSpawnedIds() {
+        return spawnedIds;
+    }
+
+    /**
+     * Ids of the entities removed since clearChanges().
+     */
+    public IntArray getRemovedIds() {
+        return removedIds;
+    }
+
+    public void clearChanges() {
+        spawned.clear();
+        spawnedIds.clear();
+        removedIds.clear();
+    }
+
+    public Ship getPlayer() {
+        return player;
+    }
+
+    /**
+     * Everything that happens in the world, read it with a cursor().
+     */
+    public GameEvents getEvents() {
+        return events;
+    }
+
+    /**
+     * Times the phases of update(). It belongs to whichever thread ticks the world, the times get to the
+     * render thread's profiler through RenderSnapshot.simNanos.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public boolean isPaused() {
+        return scheduler.isPaused();
+    }
+
+    /**
+     * A paused world ignores update() and its scheduled tasks wait.
+     */
+    public void setPaused(boolean paused) {
+        scheduler.setPaused(paused);
+        if (paused) {
+            for (int s = 0; s < ships.size; s++) {
+                setThrusting(s, false);
+            }
+        }
+    }
+
+    public long getSeed() {
+        return seed;
     }
 
     public int getLives() {
-        return lives;
+        return lives[0];
+    }
+
+    public int getLives(int ship) {
+        return lives[ship];
+    }
+
+    public int getShipCount() {
+        return ships.size;
+    }
+
+    public Ship getShip(int index) {
+        return ships.get(index);
+    }
+
+    public boolean isInGame(int ship) {
+        return inGame[ship];
+    }
+
+    public Asteroid getAsteroid(int index) {
+        return asteroids.get(index);
+    }
+
+    public Bullet getBullet(int index) {
+        return bullets.get(index);
     }
 
     public int getScore() {
         return score;
     }
+
+    public int getAsteroidCount() {
+        return asteroids.size;
+    }
+
+    public int getBulletCount() {
+        return bullets.size;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
 }
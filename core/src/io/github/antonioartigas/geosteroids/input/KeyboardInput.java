@@ -0,0 +1,57 @@
+package io.github.antonioartigas.geosteroids.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+
+/**
+ * W to thrust, A and D to turn, space to shoot.
+ * Left click spawns an asteroid at the cursor and right click one that doesn't move, for debugging.
+ */
+public class KeyboardInput implements InputSource {
+    // Set by pollFrame(), used up by the next tick.
+    private int queued = Controls.NONE;
+
+    /**
+     * Reads the presses that only last one frame. Call it once per frame, before the ticks, so a shot
+     * isn't lost on a frame without ticks or repeated on a frame with several.
+     */
+    public void pollFrame() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+            queued |= Controls.FIRE;
+        }
+
+        boolean spawn = Gdx.input.isButtonJustPressed(Input.Buttons.LEFT);
+        boolean spawnStill = Gdx.input.isButtonJustPressed(Input.Buttons.RIGHT);
+        if (spawn || spawnStill) {
+            // Only one spawn per tick fits, the last click wins.
+            queued &= Controls.FIRE;
+            queued |= spawn ? Controls.SPAWN_ASTEROID : Controls.SPAWN_STILL_ASTEROID;
+            queued = Controls.withCursor(queued, Gdx.input.getX(), GeosteroidsGame.HEIGHT - Gdx.input.getY());
+        }
+    }
+
+    @Override
+    public int poll() {
+        int controls = Controls.NONE;
+
+        if (Gdx.input.isKeyPressed(Input.Keys.W)) {
+            controls |= Controls.THRUST;
+        }
+
+        if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+            controls |= Controls.TURN_LEFT;
+        }
+
+        if (Gdx.input.isKeyPressed(Input.Keys.D)) {
+            controls |= Controls.TURN_RIGHT;
+        }
+
+        controls |= queued;
+        queued = Controls.NONE;
+
+        return controls;
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.antonioartigas.geosteroids.input;
+
+import io.github.antonioartigas.geosteroids.game.InputSource;
+
+/**
+ * Plays back a fixed list of Controls, one per tick, looping at the end.
+ * For benchmarks and tests that need a pilot but no keyboard.
+ */
+public class ScriptedInput implements InputSource {
+    private final int[] script;
+    private int tick = 0;
+
+    public ScriptedInput(int... script) {
+        if (script.length == 0) {
+            throw new IllegalArgumentException("Script needs at least one tick");
+        }
+
+        this.script = script;
+    }
+
+    @Override
+    public int poll() {
+        int controls = script[tick];
+        tick = (tick + 1) % script.length;
+        return controls;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.antonioartigas.geosteroids.input;
+
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries controls read on the render thread over to the world's thread (see Simulation). Held controls
+ * are whatever was offered last, one-shot ones (fire, spawns) wait until a tick polls them, so they're
+ * neither lost nor repeated however the frames and ticks line up.
+ */
+public class SharedInput implements InputSource {
+    private static final int HELD = Controls.THRUST | Controls.TURN_LEFT | Controls.TURN_RIGHT;
+
+    private final AtomicInteger held = new AtomicInteger(Controls.NONE);
+    private final AtomicInteger pressed = new AtomicInteger(Controls.NONE);
+
+    /**
+     * Render thread, once a frame.
+     */
+    public void offer(int controls) {
+        held.set(controls & HELD);
+        int once = controls & ~HELD;
+        if (once != Controls.NONE) {
+            pressed.accumulateAndGet(once, SharedInput::merge);
+        }
+    }
+
+    // Only one spawn per tick fits, like in KeyboardInput the last one wins.
+    private static int merge(int waiting, int once) {
+        boolean spawn = Controls.has(once, Controls.SPAWN_ASTEROID | Controls.SPAWN_STILL_ASTEROID);
+        return (spawn ? waiting & Controls.FIRE : waiting) | once;
+    }
+
+    @Override
+    public int poll() {
+        return held.get() | pressed.getAndSet(Controls.NONE);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back what BitWriter wrote. Running off the end of the packet throws MalformedPacketException.
+ */
+public class BitReader {
+    private ByteBuffer buffer;
+    private long scratch = 0;
+    private int scratchBits = 0;
+
+    /**
+     * Starts reading a received packet, the buffer should be flipped already.
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        scratch = 0;
+        scratchBits = 0;
+    }
+
+    public int read(int bits) {
+        while (scratchBits < bits) {
+            if (!buffer.hasRemaining()) {
+                throw new MalformedPacketException("Packet ended early");
+            }
+            scratch |= (buffer.get() & 0xFFL) << scratchBits;
+            scratchBits += 8;
+        }
+
+        int value = (int) (scratch & ((1L << bits) - 1));
+        scratch >>>= bits;
+        scratchBits -= bits;
+        return value;
+    }
+
+    public boolean readBoolean() {
+        return read(1) == 1;
+    }
+
+    public int readVar() {
+        int bits = read(5) + 1;
+        return read(bits);
+    }
+
+    public float readQuantized(float min, float max, int bits) {
+        int steps = (1 << bits) - 1;
+        return min + (float) read(bits) / steps * (max - min);
+    }
+
+    public static class MalformedPacketException extends RuntimeException {
+        public MalformedPacketException(String message) {
+            super(message);
+        }
+    }
+}
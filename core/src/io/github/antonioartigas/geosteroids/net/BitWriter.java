@@ -0,0 +1,74 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs values into a ByteBuffer using only as many bits as each one needs, lowest bits first.
+ */
+public class BitWriter {
+    private final ByteBuffer buffer;
+    private long scratch = 0;
+    private int scratchBits = 0;
+
+    public BitWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public void reset() {
+        buffer.clear();
+        scratch = 0;
+        scratchBits = 0;
+    }
+
+    /**
+     * Writes the low {@code bits} (1 to 32) bits of value.
+     */
+    public void write(int value, int bits) {
+        scratch |= (value & 0xFFFFFFFFL & ((1L << bits) - 1)) << scratchBits;
+        scratchBits += bits;
+        while (scratchBits >= 8) {
+            buffer.put((byte) scratch);
+            scratch >>>= 8;
+            scratchBits -= 8;
+        }
+    }
+
+    public void writeBoolean(boolean value) {
+        write(value ? 1 : 0, 1);
+    }
+
+    /**
+     * A non-negative int in as few bits as it takes, plus 5 bits saying how many that was.
+     */
+    public void writeVar(int value) {
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(value));
+        write(bits - 1, 5);
+        write(value, bits);
+    }
+
+    /**
+     * value clamped to [min, max] and rounded to one of 2^bits steps.
+     */
+    public void writeQuantized(float value, float min, float max, int bits) {
+        int steps = (1 << bits) - 1;
+        float t = (Math.clamp(value, min, max) - min) / (max - min);
+        write(Math.round(t * steps), bits);
+    }
+
+    public int getBitsWritten() {
+        return buffer.position() * 8 + scratchBits;
+    }
+
+    /**
+     * Writes out the last partial byte and flips the buffer, ready to send.
+     */
+    public ByteBuffer finish() {
+        if (scratchBits > 0) {
+            buffer.put((byte) scratch);
+            scratch = 0;
+            scratchBits = 0;
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
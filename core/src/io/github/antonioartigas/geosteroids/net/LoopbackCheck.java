@@ -0,0 +1,164 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntMap;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.World;
+import io.github.antonioartigas.geosteroids.sim.RandomPilot;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+
+/**
+ * Runs a server and some RandomPilot clients over 127.0.0.1 in one thread, one server tick then one
+ * update per client, and prints what each client cost: bytes per second and server time per tick.
+ * Extra asteroids can be thrown in to see the bandwidth stay flat however many there are, they're added
+ * again whenever a game over starts a new round.
+ * <p>
+ * At the end the pilots let go and everyone idles for a second, then each client's asteroids are matched
+ * up with the server's by id. Every one both have must be the same stage and where the server had it at the
+ * tick the client shows, a few that only one side has yet are fine. Exits with 1 if a client never got in
+ * or doesn't match.
+ * <p>
+ * Arguments: [clients] [seconds] [extra asteroids] [seed]
+ */
+public class LoopbackCheck {
+    private static final int TICK_RATE = NetServer.DEFAULT_TICK_RATE;
+    private static final int SETTLE_TICKS = TICK_RATE;
+    // Asteroids spawned or shot in the last few ticks can't have made it over yet.
+    private static final int ALLOWED_DIFFERENCE = 8;
+    // Positions and velocities go over quantized, and in between refreshes the client moves asteroids on
+    // with its velocity, so the error adds up to a pixel or two before the next refresh.
+    private static final float POSITION_TOLERANCE = 4f;
+
+    public static void main(String[] args) throws IOException {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int extraAsteroids = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1234L;
+
+        float delta = 1f / TICK_RATE;
+        try (var server = new NetServer(0, clientCount, TICK_RATE, seed)) {
+            var address = new InetSocketAddress("127.0.0.1", server.getPort());
+            var clients = new NetClient[clientCount];
+            var pilots = new RandomPilot[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = new NetClient(address);
+                pilots[i] = new RandomPilot(seed + i);
+            }
+
+            // Everyone in before measuring.
+            for (int t = 0; t < TICK_RATE * 2 && server.getClientCount() < clientCount; t++) {
+                step(server, clients, null, delta);
+            }
+            if (server.getClientCount() < clientCount) {
+                System.out.println("Only " + server.getClientCount() + " of " + clientCount + " clients got in");
+                System.exit(1);
+            }
+
+            var random = new RandomXS128(seed);
+            World world = null;
+            long asteroidTicks = 0;
+
+            long bytesBefore = server.getBytesSent();
+            long tickNanosBefore = server.getTickNanos();
+            int ticks = seconds * TICK_RATE;
+            for (int t = 0; t < ticks; t++) {
+                if (server.getWorld() != world) {
+                    world = server.getWorld();
+                    addAsteroids(world, extraAsteroids, random);
+                }
+                step(server, clients, pilots, delta);
+                asteroidTicks += server.getWorld().getAsteroidCount();
+            }
+            long bytes = server.getBytesSent() - bytesBefore;
+            long tickNanos = server.getTickNanos() - tickNanosBefore;
+
+            for (int t = 0; t < SETTLE_TICKS; t++) {
+                step(server, clients, null, delta);
+            }
+
+            System.out.printf(Locale.ROOT, "%d clients, %d s, %d asteroids on average%n",
+                    clientCount, seconds, asteroidTicks / ticks);
+            System.out.printf(Locale.ROOT, "%.1f KB/s per client, %.3f ms per server tick%n",
+                    bytes / 1024.0 / seconds / clientCount, tickNanos / 1e6 / ticks);
+
+            boolean ok = true;
+            world = server.getWorld();
+            var byId = new IntMap<Asteroid>(world.getAsteroidCount());
+            for (int i = 0; i < world.getAsteroidCount(); i++) {
+                byId.put(world.getAsteroid(i).id, world.getAsteroid(i));
+            }
+            System.out.println("server: " + byId.size + " asteroids");
+            for (int i = 0; i < clientCount; i++) {
+                var client = clients[i];
+                int seen = 0;
+                int matched = 0;
+                int wrong = 0;
+                // Back from the server's tick to the one the client shows.
+                float behind = (server.getTick() - client.getShownTick()) / TICK_RATE;
+                for (int e = 0; e < client.getEntityCount(); e++) {
+                    if (client.getKind(e) != NetClient.ASTEROID) {
+                        continue;
+                    }
+                    seen++;
+                    var asteroid = byId.get(client.getId(e));
+                    if (asteroid == null) {
+                        continue;
+                    }
+                    matched++;
+                    if (client.getStage(e) != asteroid.stage || distance(client, e, asteroid, behind) > POSITION_TOLERANCE) {
+                        wrong++;
+                    }
+                }
+
+                int missing = (seen - matched) + (byId.size - matched);
+                System.out.printf(Locale.ROOT, "client %d: %d asteroids, %d not on both, %d wrong, %d bytes received%n",
+                        i, seen, missing, wrong, client.getBytesReceived());
+                if (!client.isConnected() || missing > ALLOWED_DIFFERENCE || wrong > 0) {
+                    ok = false;
+                }
+                client.close();
+            }
+
+            if (!ok) {
+                System.out.println("Clients don't match the server");
+                System.exit(1);
+            }
+        }
+    }
+
+    // One server tick, then every client's frame. Null pilots means nobody touches anything.
+    private static void step(NetServer server, NetClient[] clients, RandomPilot[] pilots, float delta) throws IOException {
+        server.tick();
+        for (int i = 0; i < clients.length; i++) {
+            clients[i].update(delta, pilots != null ? pilots[i].poll() : Controls.NONE);
+        }
+    }
+
+    private static void addAsteroids(World world, int count, RandomXS128 random) {
+        for (int i = 0; i < count; i++) {
+            world.spawnAsteroid(
+                    random.nextFloat() * GeosteroidsGame.WIDTH, random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f, 1 + random.nextInt(3)
+            );
+        }
+    }
+
+    // How far the client's entity i is from where the asteroid was the given seconds ago, across the wrap.
+    private static float distance(NetClient client, int i, Asteroid asteroid, float seconds) {
+        float radius = Asteroid.radius(asteroid.stage);
+        float dx = wrapped(client.getX(i) - (asteroid.position.x - asteroid.velocity.x * seconds), GeosteroidsGame.WIDTH + radius * 4f);
+        float dy = wrapped(client.getY(i) - (asteroid.position.y - asteroid.velocity.y * seconds), GeosteroidsGame.HEIGHT + radius * 4f);
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Shortest way around for a difference on a span that wraps.
+    private static float wrapped(float difference, float span) {
+        float d = ((difference % span) + span) % span;
+        return Math.min(d, span - d);
+    }
+}
@@ -0,0 +1,463 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntIntMap;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.entities.Bullet;
+import io.github.antonioartigas.geosteroids.game.Controls;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * The other end of NetServer. Sends the controls, keeps a copy of what the server says is going on and
+ * works out where everything is for drawing.
+ * <p>
+ * Everything is shown INTERPOLATION_TICKS behind the newest snapshot. Ships are interpolated between
+ * the two snapshots around that time. Asteroids and bullets only come in when the client has them wrong,
+ * so they're moved along from where and when they were last heard of, wrapping like in the World.
+ */
+public class NetClient implements Closeable {
+    // 100 ms at 60 ticks a second, two lost snapshots in a row still leave something to interpolate to.
+    public static final int INTERPOLATION_TICKS = 6;
+    private static final int HISTORY = 32;
+    private static final float HELLO_INTERVAL = 0.5f;
+
+    public static final int ASTEROID = Protocol.ASTEROID;
+    public static final int BULLET = Protocol.BULLET;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_BYTES);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_BYTES);
+    private final BitReader reader = new BitReader();
+    private final BitWriter writer = new BitWriter(sendBuffer);
+
+    private boolean welcomed = false;
+    private boolean full = false;
+    private int slot = -1;
+    private int tickRate = 60;
+    private float helloTimer = 0f;
+    private int fireCount = 0;
+    // Of the INPUT packets, so the server can tell late ones.
+    private int inputSequence = 0;
+
+    // Newest snapshot applied, and which of the 32 before it were applied too.
+    private int sequence = 0;
+    private int ackBits = 0;
+    private int round = -1;
+    private int latestTick = -1;
+    private float renderTick = 0f;
+    private int score = 0;
+    private long bytesReceived = 0;
+
+    // Ship history, a ring of snapshots by tick.
+    private final int[] historyTicks = new int[HISTORY];
+    private final float[][] shipX = new float[HISTORY][Protocol.MAX_SHIPS];
+    private final float[][] shipY = new float[HISTORY][Protocol.MAX_SHIPS];
+    private final float[][] shipRotation = new float[HISTORY][Protocol.MAX_SHIPS];
+    private final boolean[][] shipAlive = new boolean[HISTORY][Protocol.MAX_SHIPS];
+    private final boolean[][] shipThrusting = new boolean[HISTORY][Protocol.MAX_SHIPS];
+    private final int[] lives = new int[Protocol.MAX_SHIPS];
+    private final boolean[] inGame = new boolean[Protocol.MAX_SHIPS];
+    private int shipCount = 0;
+
+    // Asteroids and bullets, packed at the front. Grown when needed.
+    private final IntIntMap indices = new IntIntMap();
+    private int entityCount = 0;
+    private int[] ids = new int[256];
+    private int[] kinds = new int[256];
+    private float[] x = new float[256];
+    private float[] y = new float[256];
+    private float[] velocityX = new float[256];
+    private float[] velocityY = new float[256];
+    // The server tick x and y are from.
+    private int[] ticks = new int[256];
+    private int[] sides = new int[256];
+    private int[] stages = new int[256];
+    private float[] rotations = new float[256];
+
+    public NetClient(InetSocketAddress server) throws IOException {
+        channel = DatagramChannel.open();
+        channel.connect(server);
+        channel.configureBlocking(false);
+        Arrays.fill(historyTicks, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Once a frame: reads what came in, moves the shown time along and sends the controls.
+     */
+    public void update(float delta, int controls) throws IOException {
+        if (Controls.has(controls, Controls.FIRE)) {
+            fireCount++;
+        }
+
+        receive();
+
+        if (!welcomed) {
+            helloTimer -= delta;
+            if (helloTimer <= 0f && !full) {
+                helloTimer = HELLO_INTERVAL;
+                writer.reset();
+                writer.write(Protocol.HELLO, Protocol.TYPE_BITS);
+                writer.write(Protocol.VERSION, 8);
+                channel.write(writer.finish());
+            }
+            return;
+        }
+
+        advanceRenderTick(delta);
+
+        writer.reset();
+        writer.write(Protocol.INPUT, Protocol.TYPE_BITS);
+        writer.write(++inputSequence, Protocol.SEQUENCE_BITS);
+        writer.write(sequence, Protocol.SEQUENCE_BITS);
+        writer.write(ackBits, Protocol.ACK_BITS);
+        writer.write(controls & (Controls.THRUST | Controls.TURN_LEFT | Controls.TURN_RIGHT), Protocol.CONTROL_BITS);
+        writer.write(fireCount, Protocol.FIRE_COUNT_BITS);
+        channel.write(writer.finish());
+    }
+
+    // Keeps the shown time INTERPOLATION_TICKS behind, speeding up or slowing down a little to stay there.
+    private void advanceRenderTick(float delta) {
+        if (latestTick < 0) {
+            return;
+        }
+
+        float target = latestTick - INTERPOLATION_TICKS;
+        renderTick += delta * tickRate;
+        float error = target - renderTick;
+        if (Math.abs(error) > tickRate) {
+            renderTick = target;
+        } else {
+            renderTick += error * 0.1f;
+        }
+    }
+
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            if (channel.receive(receiveBuffer) == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            bytesReceived += receiveBuffer.remaining();
+
+            try {
+                reader.reset(receiveBuffer);
+                switch (reader.read(Protocol.TYPE_BITS)) {
+                    case Protocol.WELCOME -> {
+                        slot = reader.read(Protocol.SHIP_BITS);
+                        tickRate = reader.read(8);
+                        welcomed = true;
+                    }
+                    case Protocol.FULL -> full = true;
+                    case Protocol.SNAPSHOT -> readSnapshot();
+                    default -> {
+                    }
+                }
+            } catch (BitReader.MalformedPacketException e) {
+                // Drop it, the server sends everything that matters again.
+            }
+        }
+    }
+
+    private void readSnapshot() {
+        int snapshotSequence = reader.read(Protocol.SEQUENCE_BITS);
+        if (snapshotSequence <= sequence) {
+            // Older than what we have. Not acking it makes the server send what was in it again.
+            return;
+        }
+
+        int tick = reader.read(Protocol.SEQUENCE_BITS);
+        int snapshotRound = reader.read(8);
+        if (snapshotRound != round) {
+            // New world, nothing from the old one counts.
+            round = snapshotRound;
+            clear();
+        }
+        score = reader.read(Protocol.SCORE_BITS);
+
+        // The one we had becomes a bit in ackBits, along with the ones before it.
+        int shift = snapshotSequence - sequence;
+        if (sequence == 0 || shift > Protocol.ACK_BITS) {
+            ackBits = 0;
+        } else {
+            ackBits = (shift == Protocol.ACK_BITS ? 0 : ackBits << shift) | 1 << (shift - 1);
+        }
+        sequence = snapshotSequence;
+
+        readShips(tick);
+        while (reader.readBoolean()) {
+            readEntry(tick);
+        }
+
+        if (tick > latestTick) {
+            if (latestTick < 0) {
+                renderTick = tick - INTERPOLATION_TICKS;
+            }
+            latestTick = tick;
+        }
+    }
+
+    private void readShips(int tick) {
+        int h = Math.floorMod(tick, HISTORY);
+        historyTicks[h] = tick;
+
+        shipCount = reader.read(Protocol.SHIP_BITS);
+        for (int i = 0; i < shipCount; i++) {
+            inGame[i] = reader.readBoolean();
+            lives[i] = reader.read(Protocol.LIVES_BITS);
+            boolean alive = reader.readBoolean();
+            shipAlive[h][i] = alive;
+            if (alive) {
+                shipX[h][i] = reader.readQuantized(Protocol.MIN_X, Protocol.MAX_X, Protocol.POSITION_BITS);
+                shipY[h][i] = reader.readQuantized(Protocol.MIN_Y, Protocol.MAX_Y, Protocol.POSITION_BITS);
+                shipRotation[h][i] = reader.readQuantized(0f, 360f, Protocol.ROTATION_BITS);
+                shipThrusting[h][i] = reader.readBoolean();
+            }
+        }
+    }
+
+    private void readEntry(int tick) {
+        int kind = reader.read(Protocol.ENTRY_BITS);
+        int id = reader.readVar();
+        if (kind == Protocol.REMOVE) {
+            remove(id);
+            return;
+        }
+
+        int i = indices.get(id, -1);
+        if (i == -1) {
+            i = add(id);
+        }
+        kinds[i] = kind;
+        ticks[i] = tick;
+        x[i] = reader.readQuantized(Protocol.MIN_X, Protocol.MAX_X, Protocol.POSITION_BITS);
+        y[i] = reader.readQuantized(Protocol.MIN_Y, Protocol.MAX_Y, Protocol.POSITION_BITS);
+        velocityX[i] = reader.readQuantized(-Protocol.MAX_VELOCITY, Protocol.MAX_VELOCITY, Protocol.VELOCITY_BITS);
+        velocityY[i] = reader.readQuantized(-Protocol.MAX_VELOCITY, Protocol.MAX_VELOCITY, Protocol.VELOCITY_BITS);
+        if (kind == Protocol.ASTEROID) {
+            sides[i] = reader.read(Protocol.SIDES_BITS) + 3;
+            stages[i] = reader.read(Protocol.STAGE_BITS);
+            rotations[i] = reader.readQuantized(0f, 360f, Protocol.ROTATION_BITS);
+        }
+    }
+
+    private int add(int id) {
+        if (entityCount == ids.length) {
+            grow(entityCount * 2);
+        }
+        int i = entityCount++;
+        ids[i] = id;
+        indices.put(id, i);
+        return i;
+    }
+
+    private void remove(int id) {
+        int i = indices.remove(id, -1);
+        if (i == -1) {
+            return;
+        }
+
+        int last = --entityCount;
+        if (i != last) {
+            ids[i] = ids[last];
+            kinds[i] = kinds[last];
+            ticks[i] = ticks[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            velocityX[i] = velocityX[last];
+            velocityY[i] = velocityY[last];
+            sides[i] = sides[last];
+            stages[i] = stages[last];
+            rotations[i] = rotations[last];
+            indices.put(ids[i], i);
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        stages = Arrays.copyOf(stages, capacity);
+        rotations = Arrays.copyOf(rotations, capacity);
+    }
+
+    private void clear() {
+        indices.clear();
+        entityCount = 0;
+        Arrays.fill(historyTicks, Integer.MIN_VALUE);
+    }
+
+    public boolean isConnected() {
+        return welcomed;
+    }
+
+    /**
+     * True when the server turned us away.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Our ship, -1 until the server welcomed us.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getShipCount() {
+        return shipCount;
+    }
+
+    public int getLives(int ship) {
+        return lives[ship];
+    }
+
+    public boolean isInGame(int ship) {
+        return inGame[ship];
+    }
+
+    /**
+     * The server tick that's shown, fractional and INTERPOLATION_TICKS or so behind the latest one.
+     */
+    public float getShownTick() {
+        return renderTick;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * The id the server's World gave entity i.
+     */
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public int getKind(int i) {
+        return kinds[i];
+    }
+
+    public int getSides(int i) {
+        return sides[i];
+    }
+
+    public int getStage(int i) {
+        return stages[i];
+    }
+
+    public float getRotation(int i) {
+        return rotations[i];
+    }
+
+    /**
+     * Where entity i is at the shown time.
+     */
+    public float getX(int i) {
+        return wrap(x[i] + velocityX[i] * secondsSince(i), GeosteroidsGame.WIDTH, radius(i));
+    }
+
+    public float getY(int i) {
+        return wrap(y[i] + velocityY[i] * secondsSince(i), GeosteroidsGame.HEIGHT, radius(i));
+    }
+
+    /**
+     * Bullets the server's removal of hasn't come in for yet would otherwise fly on forever.
+     */
+    public boolean isExpired(int i) {
+        return kinds[i] == Protocol.BULLET && secondsSince(i) > Bullet.MAX_LIFETIME;
+    }
+
+    private float secondsSince(int i) {
+        return (renderTick - ticks[i]) / tickRate;
+    }
+
+    // The hitbox radius, World wraps entities by it (see Entity.update()).
+    private float radius(int i) {
+        return kinds[i] == Protocol.ASTEROID ? Asteroid.radius(stages[i]) : Bullet.RADIUS;
+    }
+
+    // Entities leave one side 2 radii past the edge and come back 2 radii past the other.
+    private static float wrap(float value, float size, float radius) {
+        float min = -radius * 2f;
+        float span = size + radius * 4f;
+        return min + ((value - min) % span + span) % span;
+    }
+
+    /**
+     * A ship at the shown time, interpolated between the snapshots around it. False if it's not
+     * alive then, otherwise out is filled with x, y, rotation and 1 or 0 for thrusting.
+     */
+    public boolean getShip(int ship, float[] out) {
+        int before = -1;
+        int after = -1;
+        for (int h = 0; h < HISTORY; h++) {
+            int t = historyTicks[h];
+            if (t == Integer.MIN_VALUE || t < latestTick - HISTORY) {
+                continue;
+            }
+            if (t <= renderTick && (before == -1 || t > historyTicks[before])) {
+                before = h;
+            }
+            if (t > renderTick && (after == -1 || t < historyTicks[after])) {
+                after = h;
+            }
+        }
+
+        if (before == -1) {
+            before = after;
+        }
+        if (before == -1 || !shipAlive[before][ship]) {
+            return false;
+        }
+
+        float alpha = 0f;
+        if (after != -1 && shipAlive[after][ship]) {
+            alpha = (renderTick - historyTicks[before]) / (historyTicks[after] - historyTicks[before]);
+            // Don't slide across the screen when it wrapped around.
+            if (Math.abs(shipX[after][ship] - shipX[before][ship]) > GeosteroidsGame.WIDTH / 2f
+                    || Math.abs(shipY[after][ship] - shipY[before][ship]) > GeosteroidsGame.HEIGHT / 2f) {
+                alpha = 0f;
+            }
+        } else {
+            after = before;
+        }
+
+        out[0] = MathUtils.lerp(shipX[before][ship], shipX[after][ship], alpha);
+        out[1] = MathUtils.lerp(shipY[before][ship], shipY[after][ship], alpha);
+        out[2] = MathUtils.lerpAngleDeg(shipRotation[before][ship], shipRotation[after][ship], alpha);
+        out[3] = shipThrusting[before][ship] ? 1f : 0f;
+        return true;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (welcomed && channel.isOpen()) {
+            writer.reset();
+            writer.write(Protocol.BYE, Protocol.TYPE_BITS);
+            channel.write(writer.finish());
+        }
+        channel.close();
+    }
+}
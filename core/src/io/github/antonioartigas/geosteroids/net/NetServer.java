@@ -0,0 +1,590 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.entities.Entity;
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+import io.github.antonioartigas.geosteroids.game.World;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the World for everyone, headless, and talks to the clients over UDP.
+ * <p>
+ * Clients only send their controls. Every tick each client gets a snapshot with all the ships in full, and
+ * entries for the asteroids and bullets it doesn't have right yet: ones it hasn't heard of and ones that
+ * are gone. Asteroids and bullets fly in straight lines, so once a client knows where one was and how
+ * fast it's going it can work out where it is without hearing about it again. That's the delta against
+ * the last acked state: an id stays "dirty" for a client until a snapshot carrying it is acked and the
+ * entity is still the way that snapshot said.
+ * <p>
+ * A snapshot is never more than MAX_PACKET_BYTES, what doesn't fit waits for the next tick. Entries that
+ * were sent aren't sent again until an ack had time to come back. So what a client costs per tick, in
+ * bytes and in time, depends on how much changes and the packet budget, not on how many asteroids there
+ * are. A few entities are also sent again every tick in turn, which fixes up any drift from wrapping
+ * around the screen.
+ */
+public class NetServer implements Closeable {
+    public static final int DEFAULT_PORT = Protocol.DEFAULT_PORT;
+    public static final int DEFAULT_TICK_RATE = 60;
+    // Clients that haven't sent anything for this long are dropped.
+    private static final int TIMEOUT_SECONDS = 5;
+    // How many of the last snapshots can still be acked.
+    private static final int ACK_WINDOW = 64;
+    // Roughly a round trip on a bad connection. An entry isn't sent again sooner than this.
+    private static final int RESEND_TICKS = 12;
+    private static final int REFRESH_PER_TICK = 4;
+    private static final int MAX_POOLED = 16_384;
+
+    private final DatagramChannel channel;
+    private final int tickRate;
+    private final long seed;
+    private final NetInput[] inputs;
+    private final Client[] clients;
+
+    private World world;
+    private int round = 0;
+    private int tick = 0;
+    // Every asteroid and bullet in the world by id.
+    private final IntMap<Entity> live = new IntMap<>();
+    private int refreshCursor = 0;
+
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_BYTES);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_BYTES);
+    private final BitReader reader = new BitReader();
+    private final BitWriter writer = new BitWriter(sendBuffer);
+
+    private volatile boolean running = false;
+    private long bytesSent = 0;
+    private long tickNanos = 0;
+
+    /**
+     * @param port 0 picks a free one, see getPort().
+     */
+    public NetServer(int port, int maxPlayers, int tickRate, long seed) throws IOException {
+        if (maxPlayers < 1 || maxPlayers > Protocol.MAX_SHIPS) {
+            throw new IllegalArgumentException("Players must be 1 to " + Protocol.MAX_SHIPS + ", got " + maxPlayers);
+        }
+
+        this.tickRate = tickRate;
+        this.seed = seed;
+        inputs = new NetInput[maxPlayers];
+        for (int i = 0; i < maxPlayers; i++) {
+            inputs[i] = new NetInput();
+        }
+        clients = new Client[maxPlayers];
+
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+
+        newRound();
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Ticks at the tick rate until close().
+     */
+    public void run() throws IOException {
+        running = true;
+        long stepNanos = 1_000_000_000L / tickRate;
+        long next = System.nanoTime();
+        while (running) {
+            tick();
+
+            next += stepNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -stepNanos * 5) {
+                // Way behind, skip ahead instead of running a burst of ticks.
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * One server tick: read what came in, step the world, send everyone a snapshot.
+     */
+    public void tick() throws IOException {
+        long start = System.nanoTime();
+        receive();
+
+        world.update(1f / tickRate);
+        applyChanges();
+        tick++;
+
+        if (world.isGameOver()) {
+            newRound();
+        }
+
+        refresh();
+        for (var client : clients) {
+            if (client == null) {
+                continue;
+            }
+            if (tick - client.lastHeard > TIMEOUT_SECONDS * tickRate) {
+                drop(client);
+                continue;
+            }
+            sendSnapshot(client);
+        }
+        tickNanos += System.nanoTime() - start;
+    }
+
+    private void newRound() {
+        var sources = new InputSource[inputs.length];
+        System.arraycopy(inputs, 0, sources, 0, inputs.length);
+
+        world = new World(sources, seed + round, MAX_POOLED, MAX_POOLED);
+        world.setTrackChanges(true);
+        live.clear();
+        round++;
+
+        for (var client : clients) {
+            if (client != null) {
+                client.forgetAll();
+                world.join(client.slot);
+            }
+        }
+        world.start();
+    }
+
+    // Follows the world's asteroids and bullets coming and going, and marks them for every client.
+    private void applyChanges() {
+        var spawned = world.getSpawned();
+        var spawnedIds = world.getSpawnedIds();
+        for (int i = 0; i < spawnedIds.size; i++) {
+            int id = spawnedIds.get(i);
+            live.put(id, spawned.get(i));
+            markDirty(id);
+        }
+
+        var removedIds = world.getRemovedIds();
+        for (int i = 0; i < removedIds.size; i++) {
+            int id = removedIds.get(i);
+            live.remove(id);
+            markDirty(id);
+        }
+        world.clearChanges();
+    }
+
+    private void markDirty(int id) {
+        for (var client : clients) {
+            if (client != null) {
+                client.dirty.add(id);
+                // It changed, so whatever was sent before doesn't count.
+                client.sentTick.remove(id, 0);
+            }
+        }
+    }
+
+    // A few entities in turn go out again, in case a client's copy wandered off.
+    private void refresh() {
+        int total = world.getAsteroidCount() + world.getBulletCount();
+        if (total == 0) {
+            return;
+        }
+
+        for (int i = 0; i < Math.min(REFRESH_PER_TICK, total); i++) {
+            refreshCursor = (refreshCursor + 1) % total;
+            var entity = refreshCursor < world.getAsteroidCount()
+                    ? world.getAsteroid(refreshCursor)
+                    : world.getBullet(refreshCursor - world.getAsteroidCount());
+            for (var client : clients) {
+                if (client != null) {
+                    client.dirty.add(entity.id);
+                }
+            }
+        }
+    }
+
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null) {
+                return;
+            }
+            receiveBuffer.flip();
+
+            try {
+                reader.reset(receiveBuffer);
+                handle(from, reader.read(Protocol.TYPE_BITS));
+            } catch (BitReader.MalformedPacketException e) {
+                // Not from one of ours, or mangled. Either way there's nothing to do with it.
+            }
+        }
+    }
+
+    private void handle(SocketAddress from, int type) throws IOException {
+        var client = find(from);
+        switch (type) {
+            case Protocol.HELLO -> {
+                if (reader.read(8) != Protocol.VERSION) {
+                    return;
+                }
+                if (client == null) {
+                    client = connect(from);
+                }
+                if (client == null) {
+                    sendHeader(from, Protocol.FULL);
+                    return;
+                }
+                client.lastHeard = tick;
+                sendWelcome(client);
+            }
+            case Protocol.INPUT -> {
+                if (client == null) {
+                    return;
+                }
+                client.lastHeard = tick;
+
+                int inputSequence = reader.read(Protocol.SEQUENCE_BITS);
+                int ack = reader.read(Protocol.SEQUENCE_BITS);
+                int ackBits = reader.read(Protocol.ACK_BITS);
+                int held = reader.read(Protocol.CONTROL_BITS);
+                int fireCount = reader.read(Protocol.FIRE_COUNT_BITS);
+
+                // Reordered or duplicated, a newer one already said everything this one does.
+                if (!inputs[client.slot].set(inputSequence, held, fireCount)) {
+                    return;
+                }
+                client.acked(ack);
+                for (int i = 0; i < Protocol.ACK_BITS; i++) {
+                    if ((ackBits & (1 << i)) != 0) {
+                        client.acked(ack - 1 - i);
+                    }
+                }
+            }
+            case Protocol.BYE -> {
+                if (client != null) {
+                    drop(client);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private Client find(SocketAddress address) {
+        for (var client : clients) {
+            if (client != null && client.address.equals(address)) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private Client connect(SocketAddress address) {
+        for (int slot = 0; slot < clients.length; slot++) {
+            if (clients[slot] == null) {
+                var client = new Client(address, slot);
+                clients[slot] = client;
+                inputs[slot].reset();
+                client.forgetAll();
+                world.join(slot);
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private void drop(Client client) {
+        clients[client.slot] = null;
+        inputs[client.slot].reset();
+        world.leave(client.slot);
+    }
+
+    private void sendHeader(SocketAddress to, int type) throws IOException {
+        writer.reset();
+        writer.write(type, Protocol.TYPE_BITS);
+        send(to);
+    }
+
+    private void sendWelcome(Client client) throws IOException {
+        writer.reset();
+        writer.write(Protocol.WELCOME, Protocol.TYPE_BITS);
+        writer.write(client.slot, Protocol.SHIP_BITS);
+        writer.write(tickRate, 8);
+        send(client.address);
+    }
+
+    private void sendSnapshot(Client client) throws IOException {
+        var packet = client.startPacket();
+
+        writer.reset();
+        writer.write(Protocol.SNAPSHOT, Protocol.TYPE_BITS);
+        writer.write(packet.sequence, Protocol.SEQUENCE_BITS);
+        writer.write(tick, Protocol.SEQUENCE_BITS);
+        writer.write(round, 8);
+        writer.write(world.getScore(), Protocol.SCORE_BITS);
+
+        writer.write(world.getShipCount(), Protocol.SHIP_BITS);
+        for (int i = 0; i < world.getShipCount(); i++) {
+            var ship = world.getShip(i);
+            writer.writeBoolean(world.isInGame(i));
+            writer.write(world.getLives(i), Protocol.LIVES_BITS);
+            writer.writeBoolean(ship.isAlive());
+            if (ship.isAlive()) {
+                writer.writeQuantized(ship.position.x, Protocol.MIN_X, Protocol.MAX_X, Protocol.POSITION_BITS);
+                writer.writeQuantized(ship.position.y, Protocol.MIN_Y, Protocol.MAX_Y, Protocol.POSITION_BITS);
+                writer.writeQuantized(((ship.rotation % 360f) + 360f) % 360f, 0f, 360f, Protocol.ROTATION_BITS);
+                writer.writeBoolean(ship.flicker > 1);
+            }
+        }
+
+        // Entries until the budget's used up, each behind a 1 bit. A 0 bit ends the list.
+        int budgetBits = Protocol.MAX_PACKET_BYTES * 8 - 1;
+        var dirty = client.dirty.iterator();
+        while (dirty.hasNext) {
+            int id = dirty.next();
+            if (tick - client.sentTick.get(id, Integer.MIN_VALUE / 2) < RESEND_TICKS) {
+                continue;
+            }
+
+            var entity = live.get(id);
+            if (writer.getBitsWritten() + 1 + entryBits(id, entity) > budgetBits) {
+                break;
+            }
+
+            writer.writeBoolean(true);
+            writeEntry(id, entity);
+            client.sentTick.put(id, tick);
+            packet.ids.add(id);
+            packet.existed.add(entity != null);
+        }
+        writer.writeBoolean(false);
+
+        send(client.address);
+    }
+
+    private static int entryBits(int id, Entity entity) {
+        int idBits = 5 + Math.max(1, 32 - Integer.numberOfLeadingZeros(id));
+        int bits = Protocol.ENTRY_BITS + idBits;
+        if (entity == null) {
+            return bits;
+        }
+
+        bits += Protocol.POSITION_BITS * 2 + Protocol.VELOCITY_BITS * 2;
+        if (entity instanceof Asteroid) {
+            bits += Protocol.SIDES_BITS + Protocol.STAGE_BITS + Protocol.ROTATION_BITS;
+        }
+        return bits;
+    }
+
+    private void writeEntry(int id, Entity entity) {
+        if (entity == null) {
+            writer.write(Protocol.REMOVE, Protocol.ENTRY_BITS);
+            writer.writeVar(id);
+            return;
+        }
+
+        writer.write(entity instanceof Asteroid ? Protocol.ASTEROID : Protocol.BULLET, Protocol.ENTRY_BITS);
+        writer.writeVar(id);
+        writer.writeQuantized(entity.position.x, Protocol.MIN_X, Protocol.MAX_X, Protocol.POSITION_BITS);
+        writer.writeQuantized(entity.position.y, Protocol.MIN_Y, Protocol.MAX_Y, Protocol.POSITION_BITS);
+        writer.writeQuantized(entity.velocity.x, -Protocol.MAX_VELOCITY, Protocol.MAX_VELOCITY, Protocol.VELOCITY_BITS);
+        writer.writeQuantized(entity.velocity.y, -Protocol.MAX_VELOCITY, Protocol.MAX_VELOCITY, Protocol.VELOCITY_BITS);
+
+        if (entity instanceof Asteroid asteroid) {
+            writer.write(asteroid.sides - 3, Protocol.SIDES_BITS);
+            writer.write(asteroid.stage, Protocol.STAGE_BITS);
+            writer.writeQuantized(asteroid.rotation, 0f, 360f, Protocol.ROTATION_BITS);
+        }
+    }
+
+    private void send(SocketAddress to) throws IOException {
+        var buffer = writer.finish();
+        bytesSent += buffer.remaining();
+        channel.send(buffer, to);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getClientCount() {
+        int count = 0;
+        for (var client : clients) {
+            if (client != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bytes sent to all clients so far, UDP payload only.
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Time spent in tick() so far, waiting between ticks not included.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        channel.close();
+    }
+
+    /**
+     * Starts a server from the command line: [port] [players] [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        try (var server = new NetServer(port, players, DEFAULT_TICK_RATE, seed)) {
+            System.out.println("Serving " + players + " players on port " + server.getPort());
+            server.run();
+        }
+    }
+
+    // The controls of one ship, as last heard from its client.
+    private static final class NetInput implements InputSource {
+        private static final int FIRE_COUNT_MASK = (1 << Protocol.FIRE_COUNT_BITS) - 1;
+
+        private boolean heard = false;
+        private int sequence = 0;
+        private int held = Controls.NONE;
+        private int fireCount = 0;
+        // Presses not turned into shots yet, one goes out per tick.
+        private int shots = 0;
+
+        /**
+         * False, and nothing changes, if the packet is older than one already applied.
+         */
+        boolean set(int sequence, int held, int fireCount) {
+            if (heard && sequence - this.sequence <= 0) {
+                return false;
+            }
+
+            this.held = held & (Controls.THRUST | Controls.TURN_LEFT | Controls.TURN_RIGHT);
+            // The client counts presses, so a lost packet doesn't lose a shot. Only presses since the
+            // first packet count, the ones before it were for an earlier ship.
+            if (heard) {
+                shots += (fireCount - this.fireCount) & FIRE_COUNT_MASK;
+            }
+            this.fireCount = fireCount;
+            this.sequence = sequence;
+            heard = true;
+            return true;
+        }
+
+        void reset() {
+            heard = false;
+            sequence = 0;
+            held = Controls.NONE;
+            fireCount = 0;
+            shots = 0;
+        }
+
+        @Override
+        public int poll() {
+            int controls = held;
+            if (shots > 0) {
+                controls |= Controls.FIRE;
+                shots--;
+            }
+            return controls;
+        }
+    }
+
+    // What went out in one snapshot, to mark it delivered when it's acked.
+    private static final class SentPacket {
+        int sequence = -1;
+        final IntArray ids = new IntArray();
+        final BooleanArray existed = new BooleanArray();
+    }
+
+    private final class Client {
+        final SocketAddress address;
+        final int slot;
+        // Ids this client doesn't have right.
+        final IntSet dirty = new IntSet();
+        // When a dirty id last went out.
+        final IntIntMap sentTick = new IntIntMap();
+        final SentPacket[] sent = new SentPacket[ACK_WINDOW];
+        int nextSequence = 1;
+        int lastHeard;
+
+        Client(SocketAddress address, int slot) {
+            this.address = address;
+            this.slot = slot;
+            lastHeard = tick;
+            for (int i = 0; i < ACK_WINDOW; i++) {
+                sent[i] = new SentPacket();
+            }
+        }
+
+        SentPacket startPacket() {
+            var packet = sent[nextSequence % ACK_WINDOW];
+            packet.sequence = nextSequence++;
+            packet.ids.clear();
+            packet.existed.clear();
+            return packet;
+        }
+
+        void acked(int sequence) {
+            if (sequence <= 0) {
+                return;
+            }
+            var packet = sent[sequence % ACK_WINDOW];
+            if (packet.sequence != sequence) {
+                // Too old, or acked already.
+                return;
+            }
+            packet.sequence = -1;
+
+            for (int i = 0; i < packet.ids.size; i++) {
+                int id = packet.ids.get(i);
+                // Only delivered if it's still the way we said. Otherwise it's dirty again, send it right away.
+                if (live.containsKey(id) == packet.existed.get(i)) {
+                    dirty.remove(id);
+                }
+                sentTick.remove(id, 0);
+            }
+        }
+
+        // New client or new world, it needs to hear about everything.
+        void forgetAll() {
+            dirty.clear();
+            sentTick.clear();
+            for (var packet : sent) {
+                packet.sequence = -1;
+            }
+            for (int i = 0; i < world.getAsteroidCount(); i++) {
+                dirty.add(world.getAsteroid(i).id);
+            }
+            for (int i = 0; i < world.getBulletCount(); i++) {
+                dirty.add(world.getBullet(i).id);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+
+/**
+ * What the packets look like. Everything is bit-packed with BitWriter, every packet starts with its type.
+ * <p>
+ * Client to server:
+ * <ul>
+ * <li>HELLO: protocol version. Sent until a WELCOME (or FULL) comes back.</li>
+ * <li>INPUT: its own sequence, newest snapshot received, which of the 32 before it were received too, the
+ * held controls and how many times fire was pressed so far. Sent every frame, so a lost one doesn't
+ * matter. The server ignores any that come in after a newer one.</li>
+ * <li>BYE</li>
+ * </ul>
+ * Server to client:
+ * <ul>
+ * <li>WELCOME: the client's ship and the tick rate.</li>
+ * <li>FULL: no free ship.</li>
+ * <li>SNAPSHOT: sequence, tick, round, score, every ship in full, then entity entries until a 0 bit.
+ * An entry either removes an id or gives an asteroid's or bullet's position and velocity. See NetServer
+ * for which entries go in.</li>
+ * </ul>
+ */
+final class Protocol {
+    static final int VERSION = 2;
+    static final int DEFAULT_PORT = 27960;
+    // Under the usual MTU once the IP and UDP headers are on, so packets never get fragmented.
+    static final int MAX_PACKET_BYTES = 1200;
+    static final int MAX_SHIPS = 8;
+
+    static final int TYPE_BITS = 4;
+    static final int HELLO = 1;
+    static final int WELCOME = 2;
+    static final int FULL = 3;
+    static final int INPUT = 4;
+    static final int SNAPSHOT = 5;
+    static final int BYE = 6;
+
+    static final int ENTRY_BITS = 2;
+    static final int REMOVE = 0;
+    static final int ASTEROID = 1;
+    static final int BULLET = 2;
+
+    // Positions cover a margin around the screen for things wrapping around. 16 bits is about 1/40 of a pixel.
+    static final float MARGIN = 128f;
+    static final float MIN_X = -MARGIN;
+    static final float MAX_X = GeosteroidsGame.WIDTH + MARGIN;
+    static final float MIN_Y = -MARGIN;
+    static final float MAX_Y = GeosteroidsGame.HEIGHT + MARGIN;
+    static final int POSITION_BITS = 16;
+    static final float MAX_VELOCITY = 1024f;
+    static final int VELOCITY_BITS = 14;
+    static final int ROTATION_BITS = 10;
+    static final int SEQUENCE_BITS = 32;
+    static final int SCORE_BITS = 24;
+    static final int LIVES_BITS = 3;
+    static final int SHIP_BITS = 4;
+    static final int SIDES_BITS = 3;
+    static final int STAGE_BITS = 2;
+    static final int FIRE_COUNT_BITS = 8;
+    static final int ACK_BITS = 32;
+
+    // The only controls a client can send, no debug spawning over the network.
+    static final int CONTROL_BITS = 3;
+
+    private Protocol() {
+    }
+}
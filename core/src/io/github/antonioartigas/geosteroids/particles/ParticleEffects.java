@@ -0,0 +1,84 @@
+package io.github.antonioartigas.geosteroids.particles;
+
+import com.badlogic.gdx.math.MathUtils;
+import io.github.antonioartigas.geosteroids.game.GameEvents;
+import io.github.antonioartigas.geosteroids.game.RenderSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Decides what to send out when. Debris where asteroids break, a big burst where the ship blows up and a
+ * steady stream out the back while thrusting, all driven by the world's events. Runs on the render thread,
+ * the ships' positions come from the snapshot being drawn.
+ */
+public class ParticleEffects {
+    private static final float EXHAUST_PER_SECOND = 400f;
+    private static final int DEBRIS_PER_STAGE = 16;
+    private static final int EXPLOSION_PARTICLES = 300;
+
+    private final GameEvents.Cursor events;
+    private final Particles particles;
+
+    // Per ship, sized by the first snapshot.
+    private boolean[] thrusting = new boolean[0];
+    // Exhaust owed from earlier frames, so the stream doesn't depend on the frame rate.
+    private float[] exhaustOwed = new float[0];
+
+    public ParticleEffects(GameEvents events, Particles particles) {
+        this.particles = particles;
+        this.events = events.cursor();
+    }
+
+    public void update(RenderSnapshot snapshot, float delta) {
+        if (thrusting.length < snapshot.shipCount) {
+            thrusting = Arrays.copyOf(thrusting, snapshot.shipCount);
+            exhaustOwed = Arrays.copyOf(exhaustOwed, snapshot.shipCount);
+        }
+
+        while (events.next(snapshot.eventsWritten)) {
+            switch (events.type()) {
+                case ASTEROID_DESTROYED -> particles.emit(
+                        events.x(), events.y(), 0f, 0f,
+                        0f, 360f, DEBRIS_PER_STAGE * events.value(),
+                        30f, 120f, 0.5f, 1.2f
+                );
+                case PLAYER_DIED -> particles.emit(
+                        events.x(), events.y(), 0f, 0f,
+                        0f, 360f, EXPLOSION_PARTICLES,
+                        50f, 250f, 0.8f, 2f
+                );
+                case THRUSTER_ON -> thrusting[events.value()] = true;
+                case THRUSTER_OFF -> {
+                    thrusting[events.value()] = false;
+                    exhaustOwed[events.value()] = 0f;
+                }
+                default -> {
+                }
+            }
+        }
+
+        for (int i = 0; i < thrusting.length; i++) {
+            if (thrusting[i]) {
+                exhaust(snapshot, i, delta);
+            }
+        }
+        particles.update(delta);
+    }
+
+    private void exhaust(RenderSnapshot snapshot, int index, float delta) {
+        exhaustOwed[index] += EXHAUST_PER_SECOND * delta;
+        int amount = (int) exhaustOwed[index];
+        exhaustOwed[index] -= amount;
+
+        // Out of the back of the ship, where the thruster triangle is.
+        float rotation = snapshot.shipRotation[index];
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        particles.emit(
+                snapshot.shipX[index] - cos * 12f, snapshot.shipY[index] - sin * 12f,
+                snapshot.shipVelocityX[index], snapshot.shipVelocityY[index],
+                rotation + 180f, 30f, amount,
+                60f, 140f, 0.2f, 0.45f
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.antonioartigas.geosteroids.particles;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Draws all the particles as short streaks in one draw call. Each one is a line from where it is back
+ * along its velocity, fading out towards the tail and over its life, blended additively so they glow
+ * where they bunch up.
+ */
+public class ParticleMesh implements Disposable {
+    // x, y, packed color.
+    private static final int VERTEX_FLOATS = 3;
+    // How many seconds of movement a streak covers.
+    private static final float STREAK_SECONDS = 0.03f;
+
+    // Old style GLSL, so it has to stay within what the #version 150 shim DesktopLauncher prepends for
+    // the GL 3.2 core context covers: attribute, varying, gl_FragColor and texture2D.
+    private static final String VERTEX_SHADER = """
+            attribute vec2 a_position;
+            attribute vec4 a_color;
+            uniform mat4 u_projTrans;
+            varying vec4 v_color;
+
+            void main() {
+                v_color = a_color;
+                gl_Position = u_projTrans * vec4(a_position, 0.0, 1.0);
+            }
+            """;
+
+    private static final String FRAGMENT_SHADER = """
+            #ifdef GL_ES
+            precision mediump float;
+            #endif
+            varying vec4 v_color;
+
+            void main() {
+                gl_FragColor = v_color;
+            }
+            """;
+
+    private static final float TAIL_COLOR = Color.toFloatBits(1f, 1f, 1f, 0f);
+
+    private final ShaderProgram shader;
+    private final Mesh mesh;
+    private final float[] vertices;
+
+    public ParticleMesh(int budget) {
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Couldn't compile the particle shader: " + shader.getLog());
+        }
+
+        mesh = new Mesh(false, budget * 2, 0,
+                new VertexAttribute(Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE));
+        vertices = new float[budget * 2 * VERTEX_FLOATS];
+    }
+
+    public void draw(Particles particles, Matrix4 projection) {
+        int count = particles.count;
+        if (count == 0) {
+            return;
+        }
+
+        float[] v = vertices;
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            float x = particles.x[i];
+            float y = particles.y[i];
+
+            v[j] = x;
+            v[j + 1] = y;
+            v[j + 2] = Color.toFloatBits(1f, 1f, 1f, particles.life[i] / particles.maxLife[i]);
+            v[j + 3] = x - particles.velocityX[i] * STREAK_SECONDS;
+            v[j + 4] = y - particles.velocityY[i] * STREAK_SECONDS;
+            v[j + 5] = TAIL_COLOR;
+            j += VERTEX_FLOATS * 2;
+        }
+
+        mesh.setVertices(v, 0, j);
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+        mesh.render(shader, GL20.GL_LINES, 0, count * 2);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.antonioartigas.geosteroids.particles;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Debris, explosions and exhaust. Purely for looks, the world never sees them.
+ * <p>
+ * Every particle is a slot in a handful of float arrays sized to the budget up front, live ones are
+ * always the first {@code count}. update() is one pass over them, and a particle that dies gets the last
+ * one moved into its slot, so nothing allocates and nothing needs compacting.
+ * <p>
+ * When it gets crowded new bursts get thinned out instead of suddenly stopping: past three quarters of
+ * the budget only part of each emit() goes through, less the fuller it is, and at the budget nothing does.
+ */
+public class Particles {
+    // -Dgeosteroids.particles=N changes it, 0 turns particles off.
+    public static final int DEFAULT_BUDGET = 50_000;
+    // Velocity lost per second, so debris slows down before fading out.
+    private static final float DRAG = 1.5f;
+
+    private final int budget;
+    private final int softLimit;
+
+    final float[] x;
+    final float[] y;
+    final float[] velocityX;
+    final float[] velocityY;
+    final float[] life;
+    final float[] maxLife;
+    int count = 0;
+
+    private long dropped = 0;
+
+    public Particles(int budget) {
+        this.budget = budget;
+        softLimit = budget - budget / 4;
+
+        x = new float[budget];
+        y = new float[budget];
+        velocityX = new float[budget];
+        velocityY = new float[budget];
+        life = new float[budget];
+        maxLife = new float[budget];
+    }
+
+    /**
+     * Sends out up to {@code amount} particles from (x, y) at {@code direction} ± spread / 2 degrees
+     * (360 for all around), on top of the emitter's own velocity. Returns how many actually went out.
+     */
+    public int emit(
+            float x, float y, float baseVelocityX, float baseVelocityY,
+            float direction, float spread, int amount,
+            float minSpeed, float maxSpeed, float minLife, float maxLife
+    ) {
+        int allowed = allowed(amount);
+        dropped += amount - allowed;
+
+        for (int n = 0; n < allowed; n++) {
+            int i = count++;
+            float angle = direction + MathUtils.random(-spread / 2f, spread / 2f);
+            float speed = MathUtils.random(minSpeed, maxSpeed);
+
+            this.x[i] = x;
+            this.y[i] = y;
+            velocityX[i] = baseVelocityX + MathUtils.cosDeg(angle) * speed;
+            velocityY[i] = baseVelocityY + MathUtils.sinDeg(angle) * speed;
+            life[i] = MathUtils.random(minLife, maxLife);
+            this.maxLife[i] = life[i];
+        }
+        return allowed;
+    }
+
+    // How many of amount fit, scaled down from the soft limit on.
+    private int allowed(int amount) {
+        // Nothing asked for stays nothing, also past the soft limit where everyone else gets at least one.
+        if (amount <= 0) {
+            return 0;
+        }
+        if (count + amount <= softLimit) {
+            return amount;
+        }
+
+        int room = budget - count;
+        if (room <= 0) {
+            return 0;
+        }
+        // Over 1 while there's more room than the soft limit leaves, never more than asked for though.
+        float share = (float) room / (budget - softLimit);
+        return Math.min(Math.min(room, amount), Math.max(1, (int) (amount * share)));
+    }
+
+    public void update(float delta) {
+        float drag = Math.max(0f, 1f - DRAG * delta);
+
+        int i = 0;
+        while (i < count) {
+            float left = life[i] - delta;
+            if (left <= 0f) {
+                // Last one in its place, it gets updated on the next go round.
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                velocityX[i] = velocityX[last];
+                velocityY[i] = velocityY[last];
+                life[i] = life[last];
+                maxLife[i] = maxLife[last];
+                continue;
+            }
+
+            life[i] = left;
+            velocityX[i] *= drag;
+            velocityY[i] *= drag;
+            x[i] += velocityX[i] * delta;
+            y[i] += velocityY[i] * delta;
+            i++;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Particles that didn't go out because the budget was (nearly) used up.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.antonioartigas.geosteroids.profiling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Times the phases of every frame with nanoTime and keeps the last CAPACITY frames in ring buffers. Another
+ * clock can be put in with setClock(), AllocationTest counts allocated bytes instead of nanoseconds.
+ * <p>
+ * Timing goes like this, start() returns 0 and stop() does nothing while the profiler is off, so leaving
+ * the calls in costs a field read and a branch:
+ * <pre>
+ * long start = profiler.start();
+ * ...
+ * profiler.stop(Phase.BULLETS, start);
+ * </pre>
+ * Every REFRESH_FRAMES frames the p50, p95 and p99 of the last WINDOW frames are worked out again, for the
+ * overlay. Frames that didn't tick the world (the render rate is usually above the tick rate) have no
+ * sample for the World phases, instead of a 0 that would pull their percentiles down. A frame ticked if it
+ * has any TICK time. dumpCsv() writes out everything in the buffers. The buffers are only allocated when the profiler
+ * is turned on the first time.
+ */
+public class FrameProfiler {
+    public static final int CAPACITY = 3600;
+    public static final int WINDOW = 300;
+    public static final int REFRESH_FRAMES = 30;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int PHASE_COUNT = PHASES.length;
+    // In samples, for World phases in frames without a tick.
+    private static final long NO_SAMPLE = -1L;
+
+    private boolean enabled = false;
+    private LongSupplier clock = System::nanoTime;
+
+    // What the phases added up to in the frame that's going on.
+    private final long[] frameNanos = new long[PHASE_COUNT];
+
+    // One row of PHASE_COUNT per frame.
+    private long[] samples;
+    private int[] asteroidCounts;
+    private int[] bulletCounts;
+    private int head = 0;
+    private int size = 0;
+    private long frames = 0;
+
+    private long[] sortScratch;
+    private final long[] p50 = new long[PHASE_COUNT];
+    private final long[] p95 = new long[PHASE_COUNT];
+    private final long[] p99 = new long[PHASE_COUNT];
+    // Goes up every time the percentiles change, so the overlay knows when to lay its text out again.
+    private int version = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled && samples == null) {
+            samples = new long[CAPACITY * PHASE_COUNT];
+            asteroidCounts = new int[CAPACITY];
+            bulletCounts = new int[CAPACITY];
+            sortScratch = new long[WINDOW];
+        }
+
+        Arrays.fill(frameNanos, 0L);
+        this.enabled = enabled;
+    }
+
+    /**
+     * What start() and stop() read instead of System.nanoTime(). It can never go down, and shouldn't be 0 while on.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public long start() {
+        return enabled ? clock.getAsLong() : 0L;
+    }
+
+    public void stop(Phase phase, long start) {
+        // A span that started before the profiler was on doesn't count.
+        if (enabled && start != 0L) {
+            frameNanos[phase.ordinal()] += clock.getAsLong() - start;
+        }
+    }
+
+    /**
+     * Adds what was timed since the last endFrame() to {@code nanos}, one per Phase ordinal, and starts
+     * over. For getting the times out of a profiler on another thread, see Simulation.
+     */
+    public void drain(long[] nanos) {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            nanos[i] += frameNanos[i];
+        }
+        Arrays.fill(frameNanos, 0L);
+    }
+
+    /**
+     * Adds times from drain() to the frame that's going on.
+     */
+    public void add(long[] nanos) {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            frameNanos[i] += nanos[i];
+        }
+    }
+
+    /**
+     * Closes the frame and stores it with the entity counts at its end.
+     */
+    public void endFrame(int asteroids, int bullets) {
+        if (!enabled) {
+            return;
+        }
+
+        System.arraycopy(frameNanos, 0, samples, head * PHASE_COUNT, PHASE_COUNT);
+        if (frameNanos[Phase.TICK.ordinal()] == 0L) {
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                if (PHASES[phase].world) {
+                    samples[head * PHASE_COUNT + phase] = NO_SAMPLE;
+                }
+            }
+        }
+        asteroidCounts[head] = asteroids;
+        bulletCounts[head] = bullets;
+        Arrays.fill(frameNanos, 0L);
+
+        head = (head + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        frames++;
+
+        if (frames % REFRESH_FRAMES == 0) {
+            updatePercentiles();
+        }
+    }
+
+    private void updatePercentiles() {
+        int count = Math.min(size, WINDOW);
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            int sampled = 0;
+            for (int i = 0; i < count; i++) {
+                long sample = samples[row(size - count + i) * PHASE_COUNT + phase];
+                if (sample != NO_SAMPLE) {
+                    sortScratch[sampled++] = sample;
+                }
+            }
+            if (sampled == 0) {
+                p50[phase] = p95[phase] = p99[phase] = 0L;
+                continue;
+            }
+            Arrays.sort(sortScratch, 0, sampled);
+
+            p50[phase] = sortScratch[(sampled - 1) * 50 / 100];
+            p95[phase] = sortScratch[(sampled - 1) * 95 / 100];
+            p99[phase] = sortScratch[(sampled - 1) * 99 / 100];
+        }
+        version++;
+    }
+
+    // Buffer index of the i-th oldest frame still kept.
+    private int row(int i) {
+        return (head - size + i + CAPACITY) % CAPACITY;
+    }
+
+    public long getP50(Phase phase) {
+        return p50[phase.ordinal()];
+    }
+
+    public long getP95(Phase phase) {
+        return p95[phase.ordinal()];
+    }
+
+    public long getP99(Phase phase) {
+        return p99[phase.ordinal()];
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Entity counts at the end of the last frame.
+     */
+    public int getAsteroids() {
+        return size == 0 ? 0 : asteroidCounts[row(size - 1)];
+    }
+
+    public int getBullets() {
+        return size == 0 ? 0 : bulletCounts[row(size - 1)];
+    }
+
+    /**
+     * Writes every frame in the buffers, oldest first, with times in microseconds. World phases are left
+     * empty in frames that didn't tick.
+     */
+    public void dumpCsv(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (var writer = Files.newBufferedWriter(path)) {
+            writer.write("frame,asteroids,bullets");
+            for (var phase : PHASES) {
+                writer.write("," + phase.name().toLowerCase() + "_us");
+            }
+            writer.newLine();
+
+            long firstFrame = frames - size;
+            for (int i = 0; i < size; i++) {
+                int row = row(i);
+                var line = new StringBuilder();
+                line.append(firstFrame + i).append(',').append(asteroidCounts[row]).append(',').append(bulletCounts[row]);
+                for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                    long sample = samples[row * PHASE_COUNT + phase];
+                    line.append(',');
+                    if (sample != NO_SAMPLE) {
+                        line.append(sample / 1000.0);
+                    }
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+}
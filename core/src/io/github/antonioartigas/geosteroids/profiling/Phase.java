@@ -0,0 +1,27 @@
+package io.github.antonioartigas.geosteroids.profiling;
+
+/**
+ * The parts of a frame FrameProfiler times. World phases add up over all the ticks in a frame, and frames
+ * without a tick have no sample for them.
+ */
+public enum Phase {
+    FRAME("frame", false),
+    TICK("tick", true),
+    BULLETS("bullets", true),
+    ASTEROIDS("asteroids", true),
+    BULLET_HITS("bullet hits", true),
+    SHIP_HITS("ship hits", true),
+    PLAYER("player", true),
+    SHAPES("shapes", false),
+    PARTICLES("particles", false),
+    TEXT("text", false);
+
+    public final String label;
+    // Timed inside World.update().
+    public final boolean world;
+
+    Phase(String label, boolean world) {
+        this.label = label;
+        this.world = world;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.antonioartigas.geosteroids.profiling;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Table of the profiler's percentiles, in microseconds. The text is only laid out again when the
+ * profiler has new numbers.
+ */
+public class ProfilerOverlay {
+    private static final int COLUMN = 7;
+
+    private final BitmapFont font;
+    private final FrameProfiler profiler;
+    private final GlyphLayout layout = new GlyphLayout();
+    private final StringBuilder text = new StringBuilder(512);
+    private int shownVersion = -1;
+
+    public ProfilerOverlay(BitmapFont font, FrameProfiler profiler) {
+        this.font = font;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Draws the table with its top left corner at (x, y). The batch must have been begun.
+     */
+    public void draw(Batch batch, float x, float y) {
+        if (!profiler.isEnabled()) {
+            return;
+        }
+
+        if (profiler.getVersion() != shownVersion) {
+            shownVersion = profiler.getVersion();
+            rebuild();
+        }
+
+        font.draw(batch, layout, x, y);
+    }
+
+    private void rebuild() {
+        text.setLength(0);
+        text.append("us").append("          ").append("    p50    p95    p99\n");
+        for (var phase : Phase.values()) {
+            text.append(phase.label);
+            pad(12 - phase.label.length());
+            appendColumn(profiler.getP50(phase) / 1000);
+            appendColumn(profiler.getP95(phase) / 1000);
+            appendColumn(profiler.getP99(phase) / 1000);
+            text.append('\n');
+        }
+        text.append("asteroids ").append(profiler.getAsteroids()).append("  bullets ").append(profiler.getBullets());
+
+        layout.setText(font, text);
+    }
+
+    // Right aligned, so the columns line up in the monospaced font.
+    private void appendColumn(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        pad(COLUMN - digits);
+        text.append(value);
+    }
+
+    private void pad(int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            text.append(' ');
+        }
+    }
+}
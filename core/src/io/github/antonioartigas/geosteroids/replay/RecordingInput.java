@@ -0,0 +1,74 @@
+package io.github.antonioartigas.geosteroids.replay;
+
+import com.badlogic.gdx.Gdx;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+import io.github.antonioartigas.geosteroids.game.World;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Passes controls through from another source and writes every tick of them to a replay.
+ * <p>
+ * A broken recording shouldn't end the game, so on any IO error it logs and stops recording.
+ */
+public class RecordingInput implements InputSource {
+    private static final String TAG = "Replay";
+
+    private final InputSource source;
+    private final Path path;
+    private ReplayWriter writer;
+
+    public RecordingInput(InputSource source, Path path, long seed, int tickRate) {
+        this.source = source;
+        this.path = path;
+
+        try {
+            writer = new ReplayWriter(path, seed, tickRate);
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Can't record to " + path, e);
+        }
+    }
+
+    @Override
+    public int poll() {
+        int controls = source.poll();
+
+        if (writer != null) {
+            try {
+                writer.record(controls);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        return controls;
+    }
+
+    /**
+     * Stops recording and stores where the world ended up. Safe to call more than once.
+     */
+    public void finish(World world) {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.finish(world.getScore(), world.getLives());
+            Gdx.app.log(TAG, "Recorded " + writer.getTicks() + " ticks to " + path);
+        } catch (IOException e) {
+            fail(e);
+        }
+        writer = null;
+    }
+
+    private void fail(IOException e) {
+        Gdx.app.error(TAG, "Recording to " + path + " failed, stopping", e);
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Already failing.
+        }
+        writer = null;
+    }
+}
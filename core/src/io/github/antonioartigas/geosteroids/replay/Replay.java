@@ -0,0 +1,102 @@
+package io.github.antonioartigas.geosteroids.replay;
+
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A recorded game, loaded from a file written by ReplayWriter.
+ */
+public class Replay {
+    public final long seed;
+    public final int tickRate;
+
+    // What the game ended with. Playing it back has to end the same way.
+    public final int ticks;
+    public final int score;
+    public final int lives;
+
+    private final ByteBuffer data;
+    private final int runsStart;
+
+    private Replay(ByteBuffer data) throws IOException {
+        this.data = data;
+
+        try {
+            if (data.getInt() != ReplayFormat.MAGIC) {
+                throw new IOException("Not a replay file");
+            }
+
+            byte version = data.get();
+            if (version != ReplayFormat.VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+
+            seed = data.getLong();
+            tickRate = ReplayFormat.getVarint(data);
+            runsStart = data.position();
+
+            // Skip over the runs to get to the result.
+            while (ReplayFormat.getVarint(data) != 0) {
+                ReplayFormat.getVarint(data);
+            }
+
+            ticks = ReplayFormat.getVarint(data);
+            score = ReplayFormat.getVarint(data);
+            lives = ReplayFormat.getVarint(data);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay is cut off, the game probably didn't shut down cleanly", e);
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading.
+            }
+            buffer.flip();
+
+            return new Replay(buffer);
+        }
+    }
+
+    /**
+     * The recorded controls, one tick per poll(). Once they run out it keeps returning no controls.
+     */
+    public InputSource input() {
+        var runs = data.duplicate().position(runsStart);
+
+        return new InputSource() {
+            private int controls = Controls.NONE;
+            private int remaining = 0;
+            private boolean ended = false;
+
+            @Override
+            public int poll() {
+                if (remaining == 0 && !ended) {
+                    remaining = ReplayFormat.getVarint(runs);
+                    if (remaining == 0) {
+                        ended = true;
+                        controls = Controls.NONE;
+                    } else {
+                        controls = ReplayFormat.getVarint(runs);
+                    }
+                }
+
+                if (ended) {
+                    return Controls.NONE;
+                }
+
+                remaining--;
+                return controls;
+            }
+        };
+    }
+}
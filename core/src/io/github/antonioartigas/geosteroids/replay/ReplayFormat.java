@@ -0,0 +1,47 @@
+package io.github.antonioartigas.geosteroids.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of a replay file:
+ * <pre>
+ * "GSRP" magic, version byte, seed (long), tick rate (varint)
+ * runs of identical controls: length (varint), controls (varint), repeated
+ * 0 (varint), marks the end of the runs
+ * ticks, score, lives (varints), the result the replay has to match
+ * </pre>
+ * Varints are unsigned LEB128, 7 bits per byte. A player holding W for a second is one run of a couple of bytes.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x47535250;
+    // 2: delayed tasks moved to World's Scheduler, which can fire a tick earlier than the old clock.
+    // 3: swept collisions.
+    // 4: asteroids collide as polygons.
+    static final byte VERSION = 4;
+
+    // Longest a varint of an int can get.
+    static final int MAX_VARINT_BYTES = 5;
+
+    private ReplayFormat() {
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint is too long");
+    }
+}
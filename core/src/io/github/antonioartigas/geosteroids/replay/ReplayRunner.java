@@ -0,0 +1,61 @@
+package io.github.antonioartigas.geosteroids.replay;
+
+import io.github.antonioartigas.geosteroids.game.World;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Plays a replay back headless, as fast as the world can tick, and checks it ends like the recording did.
+ */
+public final class ReplayRunner {
+    private ReplayRunner() {
+    }
+
+    public record Result(int ticks, int score, int lives, boolean matches, long nanos) {
+        public double ticksPerSecond() {
+            return ticks / (nanos / 1_000_000_000.0);
+        }
+    }
+
+    public static Result run(Replay replay) {
+        // Built and started the same way PlayScreen does it.
+        var world = new World(replay.input(), replay.seed);
+        world.start();
+
+        float delta = 1f / replay.tickRate;
+        long start = System.nanoTime();
+        for (int i = 0; i < replay.ticks; i++) {
+            world.update(delta);
+        }
+        long nanos = System.nanoTime() - start;
+
+        boolean matches = world.getScore() == replay.score && world.getLives() == replay.lives;
+        return new Result(replay.ticks, world.getScore(), world.getLives(), matches, nanos);
+    }
+
+    /**
+     * Usage: replay-file [repeat count]. Exits with 1 if any run doesn't match the recording.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: --replay <file> [repeat count]");
+            System.exit(2);
+        }
+
+        var replay = Replay.read(Path.of(args[0]));
+        int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        System.out.printf("Replay %s: seed %d, %d ticks at %d Hz, expecting score %d and %d lives%n",
+                args[0], replay.seed, replay.ticks, replay.tickRate, replay.score, replay.lives);
+
+        boolean allMatch = true;
+        for (int i = 0; i < repeat; i++) {
+            var result = run(replay);
+            allMatch &= result.matches();
+            System.out.printf("Run %d: score %d, %d lives, %s, %.0f ticks/s%n",
+                    i + 1, result.score(), result.lives(), result.matches() ? "matches" : "MISMATCH", result.ticksPerSecond());
+        }
+
+        System.exit(allMatch ? 0 : 1);
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.antonioartigas.geosteroids.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the controls of a game as they happen, see ReplayFormat for the layout.
+ * <p>
+ * Runs of identical controls are merged and everything goes through one buffer,
+ * so the file is only touched every few kilobytes.
+ */
+public class ReplayWriter implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+
+    private int runControls = 0;
+    private int runLength = 0;
+    private int ticks = 0;
+    private boolean finished = false;
+
+    public ReplayWriter(Path path, long seed, int tickRate) throws IOException {
+        var parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.put(ReplayFormat.VERSION);
+        buffer.putLong(seed);
+        ReplayFormat.putVarint(buffer, tickRate);
+    }
+
+    /**
+     * Adds one tick's worth of controls.
+     */
+    public void record(int controls) throws IOException {
+        ticks++;
+
+        if (runLength > 0 && controls == runControls) {
+            runLength++;
+            return;
+        }
+
+        writeRun();
+        runControls = controls;
+        runLength = 1;
+    }
+
+    /**
+     * Ends the replay with the result it should reproduce, and closes the file.
+     */
+    public void finish(int score, int lives) throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        writeRun();
+        makeRoom(ReplayFormat.MAX_VARINT_BYTES * 4);
+        ReplayFormat.putVarint(buffer, 0);
+        ReplayFormat.putVarint(buffer, ticks);
+        ReplayFormat.putVarint(buffer, score);
+        ReplayFormat.putVarint(buffer, lives);
+
+        drain();
+        channel.close();
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Closes without a result. The file won't load as a replay.
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        channel.close();
+    }
+
+    private void writeRun() throws IOException {
+        if (runLength == 0) {
+            return;
+        }
+
+        makeRoom(ReplayFormat.MAX_VARINT_BYTES * 2);
+        ReplayFormat.putVarint(buffer, runLength);
+        ReplayFormat.putVarint(buffer, runControls);
+        runLength = 0;
+    }
+
+    private void makeRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
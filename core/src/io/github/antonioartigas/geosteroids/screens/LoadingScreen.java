@@ -0,0 +1,92 @@
+package io.github.antonioartigas.geosteroids.screens;
+
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.StretchViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import io.github.antonioartigas.geosteroids.Assets;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+
+import java.util.function.Supplier;
+
+/**
+ * Shows a progress bar while an asset group loads, then switches to the next screen.
+ * No text, the fonts might not be loaded yet.
+ */
+public class LoadingScreen extends ScreenAdapter {
+    // Time per frame spent loading, on top of what GeosteroidsGame does in the background.
+    private static final int LOAD_MILLIS = 12;
+    private static final float BAR_WIDTH = 400f;
+    private static final float BAR_HEIGHT = 20f;
+
+    private final GeosteroidsGame game;
+    private final Assets.Group group;
+    private final Supplier<Screen> next;
+
+    private final OrthographicCamera camera;
+    private final Viewport viewport;
+    private final ShapeRenderer shapes;
+
+    // What the bar shows, it slides towards the real progress so it doesn't jump a whole asset at a time.
+    private float shownProgress = 0f;
+
+    /**
+     * @param next Makes the screen to go to, called once the group is loaded.
+     */
+    public LoadingScreen(GeosteroidsGame game, Assets.Group group, Supplier<Screen> next) {
+        this.game = game;
+        this.group = group;
+        this.next = next;
+
+        camera = new OrthographicCamera();
+        camera.setToOrtho(false);
+        viewport = new StretchViewport(GeosteroidsGame.WIDTH, GeosteroidsGame.HEIGHT, camera);
+        shapes = new ShapeRenderer();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height);
+    }
+
+    @Override
+    public void render(float delta) {
+        var assets = game.getAssets();
+        assets.update(LOAD_MILLIS);
+
+        if (assets.isLoaded(group)) {
+            game.setScreen(next.get());
+            dispose();
+            return;
+        }
+
+        shownProgress = MathUtils.lerp(shownProgress, assets.getProgress(group), Math.min(1f, delta * 10f));
+
+        ScreenUtils.clear(0f, 0f, 0f, 1f);
+        viewport.apply();
+
+        float x = GeosteroidsGame.WIDTH / 2f - BAR_WIDTH / 2f;
+        float y = GeosteroidsGame.HEIGHT / 2f - BAR_HEIGHT / 2f;
+
+        shapes.setProjectionMatrix(camera.combined);
+        shapes.setColor(Color.WHITE);
+        shapes.begin(ShapeType.Line);
+        shapes.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        shapes.end();
+
+        shapes.begin(ShapeType.Filled);
+        shapes.rect(x + 4, y + 4, (BAR_WIDTH - 8) * shownProgress, BAR_HEIGHT - 8);
+        shapes.end();
+    }
+
+    @Override
+    public void dispose() {
+        shapes.dispose();
+    }
+}
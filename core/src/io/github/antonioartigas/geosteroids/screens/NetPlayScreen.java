@@ -0,0 +1,184 @@
+package io.github.antonioartigas.geosteroids.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.viewport.StretchViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import io.github.antonioartigas.geosteroids.Assets;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.entities.Asteroid;
+import io.github.antonioartigas.geosteroids.game.ShapeGeometry;
+import io.github.antonioartigas.geosteroids.input.KeyboardInput;
+import io.github.antonioartigas.geosteroids.net.NetClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Plays on a NetServer (--connect host:port). There's no World here, everything drawn comes from the
+ * server's snapshots through NetClient, so this only turns the keyboard into controls and draws.
+ */
+public class NetPlayScreen extends ScreenAdapter {
+    private final KeyboardInput input = new KeyboardInput();
+    private final NetClient client;
+
+    private final OrthographicCamera camera;
+    private final Viewport viewport;
+    private final ShapeRenderer shapes;
+    private final SpriteBatch batch;
+    private final BitmapFont font;
+
+    private final float[] ship = new float[4];
+    private final float[] shipVertices = new float[ShapeGeometry.SHIP_FLOATS];
+    private final float[] outline = new float[ShapeGeometry.ASTEROID_FLOATS];
+    private final GlyphLayout connectingText;
+    private final GlyphLayout fullText;
+    private final GlyphLayout scoreText = new GlyphLayout();
+    private final StringBuilder scoreString = new StringBuilder(16);
+    private int shownScore = -1;
+    private int frame = 0;
+
+    public NetPlayScreen(GeosteroidsGame game, InetSocketAddress server) {
+        try {
+            client = new NetClient(server);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't open a socket to " + server, e);
+        }
+
+        camera = new OrthographicCamera();
+        camera.setToOrtho(false);
+        viewport = new StretchViewport(GeosteroidsGame.WIDTH, GeosteroidsGame.HEIGHT, camera);
+        shapes = new ShapeRenderer();
+        batch = new SpriteBatch();
+        font = game.getAssets().getFont(Assets.BEDSTEAD30);
+
+        connectingText = new GlyphLayout(font, "Connecting to " + server.getHostString() + "...");
+        fullText = new GlyphLayout(font, "Server is full");
+    }
+
+    @Override
+    public void render(float delta) {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            Gdx.app.exit();
+            return;
+        }
+
+        input.pollFrame();
+        try {
+            // Spawning asteroids is a local debugging thing, the server ignores those bits anyway.
+            client.update(delta, input.poll());
+        } catch (IOException e) {
+            Gdx.app.error("NetPlayScreen", "Lost the connection", e);
+            Gdx.app.exit();
+            return;
+        }
+        frame++;
+
+        ScreenUtils.clear(0f, 0f, 0f, 1f);
+        viewport.apply();
+
+        shapes.setProjectionMatrix(camera.combined);
+        shapes.begin(ShapeType.Line);
+        drawEntities();
+        drawShips();
+        shapes.end();
+
+        batch.setProjectionMatrix(camera.combined);
+        batch.begin();
+        drawText();
+        batch.end();
+    }
+
+    private void drawEntities() {
+        for (int i = 0; i < client.getEntityCount(); i++) {
+            if (client.isExpired(i)) {
+                continue;
+            }
+
+            float x = client.getX(i);
+            float y = client.getY(i);
+            if (client.getKind(i) == NetClient.BULLET) {
+                shapes.circle(x, y, 1f);
+                continue;
+            }
+
+            int sides = client.getSides(i);
+            ShapeGeometry.asteroidOutline(sides, Asteroid.radius(client.getStage(i)), client.getRotation(i), outline);
+            for (int v = 0; v < sides * 2; v += 2) {
+                outline[v] += x;
+                outline[v + 1] += y;
+            }
+            shapes.polygon(outline, 0, sides * 2);
+        }
+    }
+
+    private void drawShips() {
+        // The thruster flickers like it does locally.
+        boolean flicker = (frame / 3) % 2 == 0;
+        for (int i = 0; i < client.getShipCount(); i++) {
+            if (client.getShip(i, ship)) {
+                drawShip(ship[0], ship[1], ship[2], ship[3] > 0f && flicker);
+            }
+        }
+
+        if (client.getSlot() >= 0) {
+            for (int i = 0; i < client.getLives(client.getSlot()); i++) {
+                drawShip(18 + 30 * i, GeosteroidsGame.HEIGHT - 50, 90, false);
+            }
+        }
+    }
+
+    private void drawShip(float x, float y, float rotation, boolean thruster) {
+        float[] v = shipVertices;
+        ShapeGeometry.ship(x, y, rotation, v);
+        shapes.triangle(v[0], v[1], v[2], v[3], v[4], v[5], Color.WHITE, Color.WHITE, Color.WHITE);
+        if (thruster) {
+            shapes.triangle(v[6], v[7], v[8], v[9], v[10], v[11], Color.WHITE, Color.WHITE, Color.WHITE);
+        }
+    }
+
+    private void drawText() {
+        if (client.isFull()) {
+            font.draw(batch, fullText, GeosteroidsGame.WIDTH / 2f - fullText.width / 2f, GeosteroidsGame.HEIGHT / 2f);
+            return;
+        }
+        if (!client.isConnected()) {
+            font.draw(batch, connectingText, GeosteroidsGame.WIDTH / 2f - connectingText.width / 2f, GeosteroidsGame.HEIGHT / 2f);
+            return;
+        }
+
+        if (client.getScore() != shownScore) {
+            shownScore = client.getScore();
+            scoreString.setLength(0);
+            scoreString.append(shownScore);
+            scoreText.setText(font, scoreString);
+        }
+        font.draw(batch, scoreText, 10, GeosteroidsGame.HEIGHT - 10);
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height);
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            Gdx.app.error("NetPlayScreen", "Couldn't say bye to the server", e);
+        }
+        shapes.dispose();
+        batch.dispose();
+    }
+}
@@ -1,38 +1,179 @@
 package io.github.antonioartigas.geosteroids.screens;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.math.MathUtils;
 import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.audio.AudioMixer;
+import io.github.antonioartigas.geosteroids.audio.SoundBank;
+import io.github.antonioartigas.geosteroids.audio.WorldAudio;
+import io.github.antonioartigas.geosteroids.game.FixedTimestep;
+import io.github.antonioartigas.geosteroids.game.InputSource;
 import io.github.antonioartigas.geosteroids.game.Renderer;
+import io.github.antonioartigas.geosteroids.game.RewindBuffer;
+import io.github.antonioartigas.geosteroids.game.Simulation;
 import io.github.antonioartigas.geosteroids.game.World;
+import io.github.antonioartigas.geosteroids.input.KeyboardInput;
+import io.github.antonioartigas.geosteroids.input.SharedInput;
+import io.github.antonioartigas.geosteroids.profiling.FrameProfiler;
+import io.github.antonioartigas.geosteroids.profiling.Phase;
+import io.github.antonioartigas.geosteroids.replay.RecordingInput;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 public class PlayScreen extends ScreenAdapter {
+    // Can be changed with -Dgeosteroids.tickRate=30 and so on, the game plays the same at any rate.
+    public static final int TICK_RATE = Integer.getInteger("geosteroids.tickRate", 60);
+    // After a long hitch we'd rather slow down than run a ton of ticks in one frame.
+    public static final int MAX_TICKS_PER_FRAME = 5;
+    // Every game is recorded to ~/.geosteroids/replays unless started with -Dgeosteroids.record=false.
+    public static final boolean RECORD = !"false".equals(System.getProperty("geosteroids.record"));
+    // F3 toggles the profiler overlay, -Dgeosteroids.profile=true starts with it on. F4 dumps it to ~/.geosteroids/profiles.
+    public static final boolean PROFILE = Boolean.getBoolean("geosteroids.profile");
+    // -Dgeosteroids.rewind=true keeps the last few seconds and holding backspace plays them backwards.
+    // Those games aren't recorded, a replay can't go back in time.
+    public static final boolean REWIND = Boolean.getBoolean("geosteroids.rewind");
+    public static final int REWIND_SECONDS = 10;
+    private static final int REWIND_BYTES = 64 * 1024 * 1024;
+    // The world ticks on its own thread, -Dgeosteroids.simThread=false ticks it between frames instead.
+    public static final boolean THREADED = !"false".equals(System.getProperty("geosteroids.simThread"));
+
     private final GeosteroidsGame game;
 
+    private final KeyboardInput input;
+    // What the world polls, filled from input every frame.
+    private final SharedInput shared = new SharedInput();
+    private final RecordingInput recording;
+    // Only touched here before show() and after the simulation stops, it's the simulation's in between.
     private final World world;
+    private final Simulation simulation;
     private final Renderer renderer;
+    private final WorldAudio audio;
+    // Only used when not THREADED.
+    private final FixedTimestep timestep = new FixedTimestep(TICK_RATE, MAX_TICKS_PER_FRAME);
+    // The render thread's, the world's times come over in the snapshots.
+    private final FrameProfiler profiler = new FrameProfiler();
+    private boolean paused = false;
 
     public PlayScreen(GeosteroidsGame game) {
         this.game = game;
 
-        world = new World(game.getAssets());
-        renderer = new Renderer(game.getAssets(), world);
-        world.setListener(renderer);
+        input = new KeyboardInput();
+        long seed = MathUtils.random.nextLong();
+
+        // The world's scheduler follows the ticks too, so the recording is all it takes to play the game again.
+        InputSource source = shared;
+        if (RECORD && !REWIND) {
+            recording = new RecordingInput(shared, replayPath(), seed, TICK_RATE);
+            source = recording;
+        } else {
+            recording = null;
+        }
+        world = new World(source, seed);
+
+        var rewind = REWIND ? new RewindBuffer(REWIND_SECONDS * TICK_RATE, REWIND_BYTES) : null;
+        simulation = new Simulation(world, TICK_RATE, rewind);
+        if (recording != null) {
+            // On the world's thread, it's the one polling the recording.
+            simulation.setOnGameOver(recording::finish);
+        }
+
+        renderer = new Renderer(game.getAssets(), world.getEvents(), profiler);
+        audio = new WorldAudio(world.getEvents(), new AudioMixer(new SoundBank(game.getAssets())));
+
+        profiler.setEnabled(PROFILE);
+        simulation.setProfiling(PROFILE);
     }
 
     @Override
     public void show() {
+        timestep.reset();
         world.start();
+        simulation.start(THREADED);
     }
 
     @Override
     public void render(float delta) {
-        world.update(delta);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            profiler.setEnabled(!profiler.isEnabled());
+            simulation.setProfiling(profiler.isEnabled());
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F4) && profiler.isEnabled()) {
+            dumpProfile();
+        }
+        long frameStart = profiler.start();
+
+        input.pollFrame();
+        shared.offer(input.poll());
+
+        boolean gameOver = simulation.getSnapshot().gameOver;
+        if (gameOver && Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            Gdx.app.exit();
+        }
+
+        if (!gameOver && Gdx.input.isKeyJustPressed(Input.Keys.P)) {
+            paused = !paused;
+            simulation.setPaused(paused);
+        }
+        // Every tick goes one back while it's held.
+        simulation.setRewinding(REWIND && Gdx.input.isKeyPressed(Input.Keys.BACKSPACE));
+
+        if (!THREADED) {
+            int ticks = timestep.advance(delta);
+            for (int i = 0; i < ticks; i++) {
+                simulation.tick();
+            }
+        }
+
+        if (simulation.update()) {
+            profiler.add(simulation.getSnapshot().simNanos);
+        }
+        var snapshot = simulation.getSnapshot();
+        // While paused time stands still, so the interpolated frame doesn't move either.
+        float alpha = snapshot.paused ? 1f : THREADED ? simulation.getAlpha(snapshot) : timestep.getAlpha();
 
-        renderer.render();
+        // Sound and the renderer pick up whatever happened up to the snapshot.
+        audio.update(snapshot);
+        renderer.render(snapshot, alpha);
+
+        profiler.stop(Phase.FRAME, frameStart);
+        profiler.endFrame(snapshot.asteroidCount, snapshot.bulletCount);
     }
 
     @Override
     public void resize(int width, int height) {
         renderer.resize(width, height);
     }
+
+    @Override
+    public void dispose() {
+        simulation.stop();
+        // Quitting mid game still leaves a replay that ends where we stopped.
+        if (recording != null) {
+            recording.finish(world);
+        }
+        renderer.dispose();
+    }
+
+    private void dumpProfile() {
+        var path = Gdx.files.external(".geosteroids/profiles/" + timestamp() + ".csv").file().toPath();
+        try {
+            profiler.dumpCsv(path);
+            Gdx.app.log("PlayScreen", "Profile written to " + path);
+        } catch (IOException e) {
+            Gdx.app.error("PlayScreen", "Couldn't write the profile to " + path, e);
+        }
+    }
+
+    private static Path replayPath() {
+        return Gdx.files.external(".geosteroids/replays/" + timestamp() + ".replay").file().toPath();
+    }
+
+    private static String timestamp() {
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    }
 }
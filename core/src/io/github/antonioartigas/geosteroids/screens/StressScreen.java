@@ -0,0 +1,269 @@
+package io.github.antonioartigas.geosteroids.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ScreenAdapter;
+import com.badlogic.gdx.math.RandomXS128;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.game.FixedTimestep;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+import io.github.antonioartigas.geosteroids.game.RenderSnapshot;
+import io.github.antonioartigas.geosteroids.game.Renderer;
+import io.github.antonioartigas.geosteroids.game.World;
+import io.github.antonioartigas.geosteroids.profiling.FrameProfiler;
+import io.github.antonioartigas.geosteroids.stress.StressReport;
+import io.github.antonioartigas.geosteroids.stress.StressStep;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ramps the real World and Renderer up through more and more entities (1k, 2k, 5k... up to the max) and
+ * measures every step: frame time, time spent ticking, time spent drawing, heap and GC. Each step is
+ * topped up every tick so the count holds while bullets expire and asteroids get shot.
+ * <p>
+ * Writes the steps to ~/.geosteroids/stress as CSV, logs where 60 FPS stopped holding and quits.
+ * Started with --stress, which also turns vsync off so the frame times are the real cost.
+ */
+public class StressScreen extends ScreenAdapter {
+    public static final int DEFAULT_MAX_ENTITIES = 200_000;
+    private static final int TICK_RATE = 60;
+    // A tenth of every step is bullets, the rest asteroids.
+    private static final float BULLET_SHARE = 0.1f;
+    // Frames to settle after topping up (and let the JIT catch up) before measuring.
+    private static final int WARMUP_FRAMES = 60;
+    private static final int MEASURED_FRAMES = 300;
+    // Past this a step takes ages and we've long found the breaking point.
+    private static final double GIVE_UP_FRAME_MILLIS = 250.0;
+    private static final long SEED = 1234L;
+
+    private final int[] steps;
+    private final World world;
+    private final Renderer renderer;
+    // Ticks and drawing stay on one thread here so their times add up to the frame, see Simulation for the game's.
+    private final RenderSnapshot snapshot = new RenderSnapshot();
+    private final FixedTimestep timestep = new FixedTimestep(TICK_RATE, PlayScreen.MAX_TICKS_PER_FRAME);
+    private final RandomXS128 random = new RandomXS128(SEED);
+    private final StressReport report = new StressReport();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private int step = 0;
+    private int frame = 0;
+    private long lastFrameStart = 0;
+    private final float[] frameMillis = new float[MEASURED_FRAMES];
+    private final float[] simMillis = new float[MEASURED_FRAMES];
+    private final float[] renderMillis = new float[MEASURED_FRAMES];
+    private long heapPeak = 0;
+    private long gcCountAtStart = 0;
+    private long gcMillisAtStart = 0;
+
+    public StressScreen(GeosteroidsGame game, int maxEntities) {
+        steps = steps(maxEntities);
+
+        // No waves, the ramp decides how many there are. Pools as big as the largest step so it doesn't
+        // measure the garbage collector eating asteroids.
+        world = new World(InputSource.NONE, SEED, maxEntities, maxEntities);
+        renderer = new Renderer(game.getAssets(), world.getEvents(), new FrameProfiler());
+    }
+
+    // 1k, 2k, 5k, 10k... up to max, and max itself.
+    private static int[] steps(int max) {
+        var steps = new int[32];
+        int count = 0;
+        for (int decade = 1_000; decade < max; decade *= 10) {
+            for (int multiple : new int[]{1, 2, 5}) {
+                if (decade * multiple < max) {
+                    steps[count++] = decade * multiple;
+                }
+            }
+        }
+        steps[count++] = max;
+        return Arrays.copyOf(steps, count);
+    }
+
+    @Override
+    public void show() {
+        timestep.reset();
+        Gdx.app.log("Stress", "Ramping through " + Arrays.toString(steps) + " entities");
+    }
+
+    @Override
+    public void render(float delta) {
+        if (step == steps.length) {
+            // Done, waiting for the app to quit.
+            return;
+        }
+
+        long frameStart = System.nanoTime();
+        // How long the last frame took from start to start, swapping buffers included.
+        float lastFrame = lastFrameStart == 0 ? 0f : (frameStart - lastFrameStart) / 1e6f;
+        lastFrameStart = frameStart;
+
+        int measured = frame - WARMUP_FRAMES;
+        if (measured > 0) {
+            frameMillis[measured - 1] = lastFrame;
+        }
+        if (measured == MEASURED_FRAMES) {
+            finishStep();
+            if (step == steps.length) {
+                return;
+            }
+        }
+
+        if (frame == 0) {
+            topUp();
+        }
+        if (frame == WARMUP_FRAMES) {
+            startMeasuring();
+        }
+
+        long simStart = System.nanoTime();
+        int ticks = timestep.advance(delta);
+        for (int i = 0; i < ticks; i++) {
+            world.update(timestep.getStepSeconds());
+            topUp();
+        }
+        // Copying the world out is part of what a tick costs now.
+        snapshot.capture(world, simStart, false);
+        long renderStart = System.nanoTime();
+        renderer.render(snapshot, timestep.getAlpha());
+        long renderEnd = System.nanoTime();
+
+        measured = frame - WARMUP_FRAMES;
+        if (measured >= 0) {
+            simMillis[measured] = (renderStart - simStart) / 1e6f;
+            renderMillis[measured] = (renderEnd - renderStart) / 1e6f;
+            var runtime = Runtime.getRuntime();
+            heapPeak = Math.max(heapPeak, runtime.totalMemory() - runtime.freeMemory());
+        }
+        frame++;
+    }
+
+    // Brings the asteroid and bullet counts back up to what this step wants.
+    private void topUp() {
+        int entities = steps[step];
+        int bullets = (int) (entities * BULLET_SHARE);
+        int asteroids = entities - bullets;
+
+        while (world.getAsteroidCount() < asteroids) {
+            world.spawnAsteroid(
+                    random.nextFloat() * GeosteroidsGame.WIDTH,
+                    random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 100f - 50f,
+                    random.nextFloat() * 100f - 50f,
+                    1 + random.nextInt(3)
+            );
+        }
+        while (world.getBulletCount() < bullets) {
+            world.spawnBullet(
+                    random.nextFloat() * GeosteroidsGame.WIDTH,
+                    random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 360f
+            );
+        }
+    }
+
+    private void startMeasuring() {
+        heapPeak = 0;
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+    }
+
+    private void finishStep() {
+        int entities = steps[step];
+        int bullets = (int) (entities * BULLET_SHARE);
+        var runtime = Runtime.getRuntime();
+
+        var result = new StressStep(
+                entities - bullets,
+                bullets,
+                MEASURED_FRAMES,
+                mean(frameMillis),
+                percentile(frameMillis, 95),
+                percentile(frameMillis, 99),
+                mean(simMillis),
+                percentile(simMillis, 95),
+                mean(renderMillis),
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20,
+                heapPeak >> 20,
+                gcCount() - gcCountAtStart,
+                gcMillis() - gcMillisAtStart
+        );
+        report.add(result);
+        Gdx.app.log("Stress", String.format(
+                "%7d entities: frame %.2f ms (p95 %.2f), sim %.2f ms, render %.2f ms, heap %d MB, %d GCs%s",
+                result.entities(), result.frameMean(), result.frameP95(), result.simMean(), result.renderMean(),
+                result.heapUsed(), result.gcCount(), result.holds60() ? "" : "  <- below 60 FPS"
+        ));
+
+        step++;
+        frame = 0;
+        if (step == steps.length || result.frameMean() > GIVE_UP_FRAME_MILLIS) {
+            step = steps.length;
+            finish();
+        }
+    }
+
+    private void finish() {
+        Gdx.app.log("Stress", report.summary());
+
+        var path = reportPath();
+        try {
+            report.write(path);
+            Gdx.app.log("Stress", "Report written to " + path);
+        } catch (IOException e) {
+            Gdx.app.error("Stress", "Couldn't write the report to " + path, e);
+        }
+        Gdx.app.exit();
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (var collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (var collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static double mean(float[] values) {
+        double sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double percentile(float[] values, double percentile) {
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.round(percentile / 100.0 * (sorted.length - 1))];
+    }
+
+    private static Path reportPath() {
+        var timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return Gdx.files.external(".geosteroids/stress/" + timestamp + ".csv").file().toPath();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        renderer.resize(width, height);
+    }
+
+    @Override
+    public void dispose() {
+        renderer.dispose();
+    }
+}
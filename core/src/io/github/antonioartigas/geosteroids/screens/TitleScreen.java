@@ -76,7 +76,7 @@ public class TitleScreen extends ScreenAdapter {
 
         if (Gdx.input.isKeyJustPressed(Input.Keys.ENTER)) {
             start.play();
-            game.setScreen(game.playScreen);
+            game.startGame();
         }
 
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
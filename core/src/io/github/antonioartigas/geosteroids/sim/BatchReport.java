@@ -0,0 +1,101 @@
+package io.github.antonioartigas.geosteroids.sim;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Aggregate numbers over a batch of games.
+ */
+public class BatchReport {
+    public final List<GameStats> games;
+    public final int tickRate;
+    public final int threads;
+    public final long wallNanos;
+
+    public BatchReport(List<GameStats> games, int tickRate, int threads, long wallNanos) {
+        this.games = games;
+        this.tickRate = tickRate;
+        this.threads = threads;
+        this.wallNanos = wallNanos;
+    }
+
+    public long totalTicks() {
+        long ticks = 0;
+        for (var game : games) {
+            ticks += game.ticks();
+        }
+        return ticks;
+    }
+
+    /**
+     * All games together, per second of real time.
+     */
+    public double ticksPerSecond() {
+        return totalTicks() / (wallNanos / 1e9);
+    }
+
+    /**
+     * Per second of time spent simulating on one thread. Stays flat as threads are added if scaling is linear.
+     */
+    public double ticksPerSecondPerCore() {
+        long nanos = 0;
+        for (var game : games) {
+            nanos += game.nanos();
+        }
+        return totalTicks() / (nanos / 1e9);
+    }
+
+    public int gameOvers() {
+        int count = 0;
+        for (var game : games) {
+            if (game.gameOver()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Value at {@code percentile} (0 to 100) of some stat over all games, 0 without any.
+     */
+    public int percentile(ToIntFunction<GameStats> stat, double percentile) {
+        int[] values = sorted(stat);
+        if (values.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.round(percentile / 100.0 * (values.length - 1));
+        return values[Math.clamp(index, 0, values.length - 1)];
+    }
+
+    public double mean(ToIntFunction<GameStats> stat) {
+        return games.stream().mapToInt(stat).average().orElse(0);
+    }
+
+    public String format() {
+        var out = new StringBuilder();
+        out.append(String.format("%d games on %d threads in %.2f s, %d ended in game over%n",
+                games.size(), threads, wallNanos / 1e9, gameOvers()));
+        if (games.isEmpty()) {
+            return out.toString();
+        }
+        out.append(String.format("%-14s %9s %9s %9s %9s %9s %9s %9s%n", "", "mean", "min", "p10", "p50", "p90", "p99", "max"));
+        appendRow(out, "survived (s)", game -> game.ticks() / tickRate);
+        appendRow(out, "score", GameStats::score);
+        appendRow(out, "peak entities", GameStats::peakEntities);
+        out.append(String.format("%.0f ticks/s total, %.0f ticks/s per core%n", ticksPerSecond(), ticksPerSecondPerCore()));
+        return out.toString();
+    }
+
+    private void appendRow(StringBuilder out, String name, ToIntFunction<GameStats> stat) {
+        out.append(String.format("%-14s %9.1f %9d %9d %9d %9d %9d %9d%n", name, mean(stat),
+                percentile(stat, 0), percentile(stat, 10), percentile(stat, 50),
+                percentile(stat, 90), percentile(stat, 99), percentile(stat, 100)));
+    }
+
+    private int[] sorted(ToIntFunction<GameStats> stat) {
+        int[] values = games.stream().mapToInt(stat).toArray();
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.antonioartigas.geosteroids.sim;
+
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+import io.github.antonioartigas.geosteroids.game.World;
+import io.github.antonioartigas.geosteroids.input.ScriptedInput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Plays lots of independent headless games at once, one per task on a ForkJoinPool, for tuning
+ * the spawn rate and difficulty ramp.
+ * <p>
+ * Games share nothing: each World has its own random generator, pools and scheduler, and each pilot
+ * gets its own seed. The same base seed always gives the same report, whatever the thread count.
+ */
+public class BatchSimulator {
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    private final int tickRate;
+    private final int maxTicks;
+    private final LongFunction<InputSource> pilots;
+
+    /**
+     * @param maxTicks Games that are still going after this many ticks are stopped.
+     * @param pilots   Makes the pilot for a game from that game's seed.
+     */
+    public BatchSimulator(int tickRate, int maxTicks, LongFunction<InputSource> pilots) {
+        this.tickRate = tickRate;
+        this.maxTicks = maxTicks;
+        this.pilots = pilots;
+    }
+
+    public BatchReport run(int games, long baseSeed, int threads) {
+        var tasks = new ArrayList<Callable<GameStats>>(games);
+        for (int i = 0; i < games; i++) {
+            // Spread the seeds out so neighbouring games don't start from similar generator states.
+            long seed = baseSeed + i * 0x9E3779B97F4A7C15L;
+            tasks.add(() -> play(seed));
+        }
+
+        var pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<GameStats>> futures = pool.invokeAll(tasks);
+
+            var stats = new ArrayList<GameStats>(games);
+            for (var future : futures) {
+                stats.add(future.get());
+            }
+
+            return new BatchReport(stats, tickRate, threads, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public GameStats play(long seed) {
+        var world = new World(pilots.apply(seed ^ 0x5DEECE66DL), seed);
+        world.start();
+
+        float delta = 1f / tickRate;
+        int peakEntities = 0;
+        int ticks = 0;
+
+        long start = System.nanoTime();
+        while (ticks < maxTicks && !world.isGameOver()) {
+            world.update(delta);
+            ticks++;
+            peakEntities = Math.max(peakEntities, world.getAsteroidCount() + world.getBulletCount());
+        }
+        long nanos = System.nanoTime() - start;
+
+        return new GameStats(seed, ticks, world.isGameOver(), world.getScore(), peakEntities, nanos);
+    }
+
+    public static LongFunction<InputSource> pilot(String name) {
+        return switch (name) {
+            case "random" -> RandomPilot::new;
+            case "idle" -> seed -> InputSource.NONE;
+            // Spins in place and fires about twice a second.
+            case "spinner" -> seed -> new ScriptedInput(spinnerScript());
+            default -> throw new IllegalArgumentException("Unknown pilot '" + name + "', try random, idle or spinner");
+        };
+    }
+
+    private static int[] spinnerScript() {
+        int[] script = new int[30];
+        Arrays.fill(script, Controls.TURN_LEFT);
+        script[0] |= Controls.FIRE;
+        return script;
+    }
+
+    /**
+     * Usage: [games] [max minutes per game] [threads] [pilot] [seed]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int maxMinutes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String pilot = args.length > 3 ? args[3] : "random";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+
+        var simulator = new BatchSimulator(DEFAULT_TICK_RATE, maxMinutes * 60 * DEFAULT_TICK_RATE, pilot(pilot));
+        System.out.printf("Simulating %d games with the %s pilot, up to %d minutes each%n", games, pilot, maxMinutes);
+        System.out.print(simulator.run(games, seed, threads).format());
+    }
+}
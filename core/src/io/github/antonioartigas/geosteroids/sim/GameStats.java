@@ -0,0 +1,11 @@
+package io.github.antonioartigas.geosteroids.sim;
+
+/**
+ * How one simulated game went.
+ *
+ * @param ticks        Ticks until game over, or the tick limit if the game didn't end.
+ * @param peakEntities Most asteroids and bullets alive at once.
+ * @param nanos        Time spent simulating, on whichever thread ran the game.
+ */
+public record GameStats(long seed, int ticks, boolean gameOver, int score, int peakEntities, long nanos) {
+}
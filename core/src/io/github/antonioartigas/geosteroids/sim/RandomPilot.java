@@ -0,0 +1,35 @@
+package io.github.antonioartigas.geosteroids.sim;
+
+import com.badlogic.gdx.math.RandomXS128;
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.InputSource;
+
+/**
+ * Holds a random mix of thrust and turning for a while, then picks another, firing every so often.
+ * Not good at the game, but it moves around and shoots like a player would.
+ */
+public class RandomPilot implements InputSource {
+    private final RandomXS128 random;
+    private int held = Controls.NONE;
+    private int ticksLeft = 0;
+
+    public RandomPilot(long seed) {
+        random = new RandomXS128(seed);
+    }
+
+    @Override
+    public int poll() {
+        if (ticksLeft <= 0) {
+            // Any combination of the three bits.
+            held = random.nextInt(8) & (Controls.THRUST | Controls.TURN_LEFT | Controls.TURN_RIGHT);
+            ticksLeft = 10 + random.nextInt(50);
+        }
+        ticksLeft--;
+
+        int controls = held;
+        if (random.nextInt(10) == 0) {
+            controls |= Controls.FIRE;
+        }
+        return controls;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.antonioartigas.geosteroids.stress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The steps of a stress run, written out as CSV with one row per step.
+ */
+public class StressReport {
+    private final List<StressStep> steps = new ArrayList<>();
+
+    public void add(StressStep step) {
+        steps.add(step);
+    }
+
+    public List<StressStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * The first step that couldn't hold 60 FPS, or null if they all did.
+     */
+    public StressStep breakingPoint() {
+        for (var step : steps) {
+            if (!step.holds60()) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The most entities 60 FPS was held at, 0 if not even the first step made it.
+     */
+    public int maxEntitiesAt60() {
+        int max = 0;
+        for (var step : steps) {
+            if (!step.holds60()) {
+                break;
+            }
+            max = step.entities();
+        }
+        return max;
+    }
+
+    public String summary() {
+        var broke = breakingPoint();
+        if (broke == null) {
+            return "Held 60 FPS all the way to " + steps.getLast().entities() + " entities";
+        }
+        return String.format(
+                "Held 60 FPS up to %d entities, broke at %d (p95 frame %.2f ms)",
+                maxEntitiesAt60(), broke.entities(), broke.frameP95()
+        );
+    }
+
+    public void write(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (var writer = Files.newBufferedWriter(path)) {
+            writer.write("entities,asteroids,bullets,frames,frame_mean_ms,frame_p95_ms,frame_p99_ms,"
+                    + "sim_mean_ms,sim_p95_ms,render_mean_ms,heap_used_mb,heap_peak_mb,gc_count,gc_ms,holds_60");
+            writer.newLine();
+
+            for (var step : steps) {
+                // Locale.ROOT, so it's always a decimal point.
+                writer.write(String.format(
+                        Locale.ROOT,
+                        "%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d,%d,%b",
+                        step.entities(), step.asteroids(), step.bullets(), step.frames(),
+                        step.frameMean(), step.frameP95(), step.frameP99(),
+                        step.simMean(), step.simP95(), step.renderMean(),
+                        step.heapUsed(), step.heapPeak(), step.gcCount(), step.gcMillis(), step.holds60()
+                ));
+                writer.newLine();
+            }
+        }
+    }
+}
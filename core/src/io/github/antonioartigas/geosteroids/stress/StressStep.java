@@ -0,0 +1,32 @@
+package io.github.antonioartigas.geosteroids.stress;
+
+/**
+ * What one step of the stress ramp measured. Times are in milliseconds, heap in megabytes and GC numbers
+ * cover the measured frames only.
+ */
+public record StressStep(
+        int asteroids,
+        int bullets,
+        int frames,
+        double frameMean,
+        double frameP95,
+        double frameP99,
+        double simMean,
+        double simP95,
+        double renderMean,
+        long heapUsed,
+        long heapPeak,
+        long gcCount,
+        long gcMillis
+) {
+    // 60 FPS is held if 95% of frames make it in time.
+    public static final double TARGET_FRAME_MILLIS = 1000.0 / 60.0;
+
+    public int entities() {
+        return asteroids + bullets;
+    }
+
+    public boolean holds60() {
+        return frameP95 <= TARGET_FRAME_MILLIS;
+    }
+}
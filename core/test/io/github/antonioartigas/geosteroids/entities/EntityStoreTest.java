@@ -0,0 +1,57 @@
+package io.github.antonioartigas.geosteroids.entities;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The object view of EntityStore, get() and set() around the arrays.
+ */
+class EntityStoreTest {
+    @Test
+    void rawAsteroidComesOutWithoutShape() {
+        var store = EntityStore.asteroids(4);
+        int i = store.add(10f, 20f, 3f, -4f, 15f);
+
+        var asteroid = store.get(i, new Asteroid());
+
+        assertEquals(10f, asteroid.position.x);
+        assertEquals(20f, asteroid.position.y);
+        assertEquals(3f, asteroid.velocity.x);
+        assertEquals(-4f, asteroid.velocity.y);
+        assertEquals(15f, asteroid.hitbox.radius);
+        assertEquals(0, asteroid.sides);
+        assertArrayEquals(new float[asteroid.outline.length], asteroid.outline);
+    }
+
+    @Test
+    void asteroidGoesInAndOutWithItsShape() {
+        var original = new Asteroid(new Vector2(100f, 200f), new Vector2(5f, 6f), 6, 30f, 30f, 2, 45f);
+        var store = EntityStore.asteroids(4);
+        int i = store.add(original);
+
+        var asteroid = store.get(i, new Asteroid());
+
+        assertEquals(6, asteroid.sides);
+        assertEquals(2, asteroid.stage);
+        assertEquals(30f, asteroid.shapeRadius);
+        assertArrayEquals(original.outline, asteroid.outline);
+        assertArrayEquals(original.normals, asteroid.normals);
+    }
+
+    @Test
+    void setWritesChangesBack() {
+        var store = EntityStore.asteroids(4);
+        int i = store.add(10f, 20f, 3f, -4f, 15f);
+
+        var asteroid = store.get(i, new Asteroid());
+        asteroid.setPosition(50f, 60f);
+        store.set(i, asteroid);
+
+        assertEquals(50f, store.x[i]);
+        assertEquals(60f, store.y[i]);
+        assertEquals(0, store.sides[i]);
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.antonioartigas.geosteroids.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The asteroid outlines RenderSnapshot keeps from one capture to the next.
+ */
+class RenderSnapshotTest {
+    @Test
+    void outlineFollowsAReusedIdAfterARestore() {
+        var world = new World(InputSource.NONE, 1234L);
+        var state = ByteBuffer.allocate(world.getStateSize());
+        world.writeState(state);
+        var snapshot = new RenderSnapshot();
+
+        world.spawnAsteroid(100f, 100f, 0f, 0f, 1);
+        snapshot.capture(world, 0L, false);
+
+        // Same id and, from the same random state, the same sides and rotation, but bigger.
+        state.rewind();
+        world.readState(state);
+        world.spawnAsteroid(100f, 100f, 0f, 0f, 3);
+        snapshot.capture(world, 0L, false);
+
+        var asteroid = world.getAsteroid(0);
+        assertEquals(asteroid.id, snapshot.asteroidIds[0]);
+        int floats = asteroid.sides * 2;
+        assertArrayEquals(Arrays.copyOf(asteroid.outline, floats), Arrays.copyOf(snapshot.asteroidOutlines, floats));
+    }
+}
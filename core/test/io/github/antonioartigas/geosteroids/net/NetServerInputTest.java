@@ -0,0 +1,110 @@
+package io.github.antonioartigas.geosteroids.net;
+
+import io.github.antonioartigas.geosteroids.game.Controls;
+import io.github.antonioartigas.geosteroids.game.GameEvent;
+import io.github.antonioartigas.geosteroids.game.GameEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * INPUT packets the way UDP can deliver them, late and twice, which loopback never does. Sent by hand so
+ * the order is up to the test.
+ */
+class NetServerInputTest {
+    private NetServer server;
+    private DatagramChannel channel;
+    private final BitWriter writer = new BitWriter(ByteBuffer.allocate(Protocol.MAX_PACKET_BYTES));
+    private GameEvents.Cursor events;
+
+    @BeforeEach
+    void connect() throws IOException {
+        server = new NetServer(0, 1, NetServer.DEFAULT_TICK_RATE, 1234L);
+        channel = DatagramChannel.open();
+        channel.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+
+        writer.reset();
+        writer.write(Protocol.HELLO, Protocol.TYPE_BITS);
+        writer.write(Protocol.VERSION, 8);
+        channel.write(writer.finish());
+        server.tick();
+        assertEquals(1, server.getClientCount());
+
+        events = server.getWorld().getEvents().cursor();
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        channel.close();
+        server.close();
+    }
+
+    @Test
+    void lateAndDuplicatedInputsDontFire() throws IOException {
+        input(1, 0);
+        input(2, 1);
+        input(4, 2);
+        // Late, then the newest one again.
+        input(3, 1);
+        input(4, 2);
+        idle();
+
+        assertEquals(2, shots());
+    }
+
+    @Test
+    void pressesBetweenPacketsAllFire() throws IOException {
+        input(1, 0);
+        // Three presses, one packet.
+        input(2, 3);
+        idle();
+
+        assertEquals(3, shots());
+    }
+
+    @Test
+    void fireCountWrapsAround() throws IOException {
+        input(1, 254);
+        input(2, 1);
+        idle();
+
+        assertEquals(3, shots());
+    }
+
+    // Sends one INPUT with nothing held and runs a server tick.
+    private void input(int sequence, int fireCount) throws IOException {
+        writer.reset();
+        writer.write(Protocol.INPUT, Protocol.TYPE_BITS);
+        writer.write(sequence, Protocol.SEQUENCE_BITS);
+        writer.write(0, Protocol.SEQUENCE_BITS);
+        writer.write(0, Protocol.ACK_BITS);
+        writer.write(Controls.NONE, Protocol.CONTROL_BITS);
+        writer.write(fireCount, Protocol.FIRE_COUNT_BITS);
+        channel.write(writer.finish());
+        server.tick();
+    }
+
+    // Enough ticks for queued shots to go out.
+    private void idle() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            server.tick();
+        }
+    }
+
+    private int shots() {
+        int count = 0;
+        while (events.next()) {
+            if (events.type() == GameEvent.BULLET_FIRED) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.antonioartigas.geosteroids.particles;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * How emit() shares the budget out.
+ */
+class ParticlesTest {
+    private static final int BUDGET = 100;
+
+    @Test
+    void neverSendsMoreThanAskedFor() {
+        var particles = new Particles(BUDGET);
+
+        assertEquals(80, emit(particles, 80));
+        assertEquals(0L, particles.getDropped());
+    }
+
+    @Test
+    void scalesDownPastTheSoftLimit() {
+        var particles = new Particles(BUDGET);
+        emit(particles, 80);
+
+        // 20 left of the 25 past the soft limit.
+        assertEquals(8, emit(particles, 10));
+        assertEquals(2L, particles.getDropped());
+    }
+
+    @Test
+    void askingForNothingPastTheSoftLimitSendsNothing() {
+        var particles = new Particles(BUDGET);
+        emit(particles, 80);
+
+        assertEquals(0, emit(particles, 0));
+        assertEquals(80, particles.getCount());
+        assertEquals(0L, particles.getDropped());
+    }
+
+    @Test
+    void nothingFitsOnceFull() {
+        var particles = new Particles(BUDGET);
+        emit(particles, BUDGET);
+
+        assertEquals(0, emit(particles, 5));
+        assertEquals(5L, particles.getDropped());
+    }
+
+    private static int emit(Particles particles, int amount) {
+        return particles.emit(0f, 0f, 0f, 0f, 0f, 360f, amount, 10f, 20f, 1f, 2f);
+    }
+}
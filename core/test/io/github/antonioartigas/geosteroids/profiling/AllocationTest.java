@@ -0,0 +1,204 @@
+package io.github.antonioartigas.geosteroids.profiling;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.sun.management.ThreadMXBean;
+import io.github.antonioartigas.geosteroids.GeosteroidsGame;
+import io.github.antonioartigas.geosteroids.game.RenderSnapshot;
+import io.github.antonioartigas.geosteroids.game.ShapeGeometry;
+import io.github.antonioartigas.geosteroids.game.World;
+import io.github.antonioartigas.geosteroids.particles.ParticleEffects;
+import io.github.antonioartigas.geosteroids.particles.Particles;
+import io.github.antonioartigas.geosteroids.sim.RandomPilot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Plays the game headless for a while and counts the bytes every phase allocates, so per tick garbage
+ * can't sneak back in. The world's own profiler does the counting, with the thread's allocated bytes as its
+ * clock. After the world, each tick goes through what drawing does that doesn't need a GL context: the
+ * snapshot, the vertex math, the particles and the score string. FRAME is all of it.
+ * <p>
+ * A RandomPilot flies and shoots, and the asteroids are kept topped up so there's always something to hit.
+ * When the pilot runs out of lives the world is put back to how it started, so the ship never stops
+ * being part of it. Topping up and restoring happen between ticks and aren't counted.
+ * <p>
+ * What counts is on how many of the measured ticks a phase allocated anything, not how much. Garbage that
+ * only comes with some events (a split, a wave, a death) is too little to show in an average over
+ * thousands of ticks, but it happens on a lot more than a handful of them.
+ */
+class AllocationTest {
+    private static final long SEED = 1234L;
+    private static final float DELTA = 1f / 60f;
+    private static final int ASTEROIDS = 1000;
+    // Long enough for the JIT to get to the hot paths and the arrays and pools to grow to size.
+    private static final int WARMUP_TICKS = 5000;
+    private static final int MEASURED_TICKS = 5000;
+    private static final String SNAPSHOT = "SNAPSHOT";
+    // -DallocationBudget.BULLET_HITS=10 and so on, the test task passes -PallocationBudget.* through.
+    private static final String BUDGET_PROPERTY = "allocationBudget.";
+
+    private static final Phase[] PHASES = Phase.values();
+    // Phases, then the snapshot.
+    private static final int CHECKS = PHASES.length + 1;
+
+    // On how many of MEASURED_TICKS each check may allocate. Pools and arrays still find a new biggest size
+    // now and then, that's once or twice. FRAME and TICK count whatever their phases allocate on top.
+    private static final Map<Phase, Integer> BUDGETS = new EnumMap<>(Map.of(
+            Phase.FRAME, 10,
+            Phase.TICK, 10,
+            Phase.BULLETS, 5,
+            Phase.ASTEROIDS, 5,
+            Phase.BULLET_HITS, 5,
+            Phase.SHIP_HITS, 5,
+            Phase.PLAYER, 5,
+            Phase.SHAPES, 5,
+            Phase.PARTICLES, 5,
+            Phase.TEXT, 5
+    ));
+    private static final int SNAPSHOT_BUDGET = 5;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final World world = new World(new RandomPilot(SEED), SEED);
+    private final FrameProfiler profiler = world.getProfiler();
+    private final RandomXS128 random = new RandomXS128(SEED);
+    private ByteBuffer start;
+
+    private final RenderSnapshot snapshot = new RenderSnapshot();
+    private final ParticleEffects effects = new ParticleEffects(world.getEvents(), new Particles(Particles.DEFAULT_BUDGET));
+    private final float[] shipVertices = new float[ShapeGeometry.SHIP_FLOATS];
+    private final float[] asteroidVertices = new float[ShapeGeometry.ASTEROID_FLOATS];
+    private final StringBuilder scoreString = new StringBuilder(16);
+
+    // Bytes and ticks that allocated anything, per check.
+    private final long[] tickBytes = new long[CHECKS];
+    private final long[] bytes = new long[CHECKS];
+    private final int[] allocatingTicks = new int[CHECKS];
+    private long restores = 0;
+
+    @Test
+    void steadyStateTicksDontAllocate() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "This JVM can't count allocated bytes per thread");
+
+        world.start();
+        start = ByteBuffer.allocate(world.getStateSize());
+        world.writeState(start);
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+        profiler.setClock(threads::getCurrentThreadAllocatedBytes);
+        profiler.setEnabled(true);
+
+        for (int t = 0; t < WARMUP_TICKS; t++) {
+            tick();
+        }
+        Arrays.fill(bytes, 0L);
+        Arrays.fill(allocatingTicks, 0);
+        restores = 0;
+        for (int t = 0; t < MEASURED_TICKS; t++) {
+            tick();
+        }
+
+        System.out.printf(Locale.ROOT, "%d ticks after %d warmup, %d asteroids, %d restores%n",
+                MEASURED_TICKS, WARMUP_TICKS, world.getAsteroidCount(), restores);
+        System.out.printf(Locale.ROOT, "%-12s %12s %10s %8s %8s%n", "phase", "bytes", "B/tick", "ticks", "budget");
+        var over = new StringJoiner(", ");
+        for (int i = 0; i < CHECKS; i++) {
+            int budget = budget(i);
+            boolean failed = allocatingTicks[i] > budget;
+            System.out.printf(Locale.ROOT, "%-12s %12d %10.1f %8d %8d%s%n", name(i), bytes[i],
+                    (double) bytes[i] / MEASURED_TICKS, allocatingTicks[i], budget, failed ? "  <- allocates" : "");
+            if (failed) {
+                over.add(String.format(Locale.ROOT, "%s on %d ticks, budget %d (%d bytes)",
+                        name(i), allocatingTicks[i], budget, bytes[i]));
+            }
+        }
+
+        if (over.length() > 0) {
+            fail("Over the allocation budget in " + MEASURED_TICKS + " ticks: " + over);
+        }
+    }
+
+    private void tick() {
+        if (world.isGameOver()) {
+            start.rewind();
+            world.readState(start);
+            restores++;
+        }
+        topUp();
+
+        Arrays.fill(tickBytes, 0L);
+        long frame = profiler.start();
+        world.update(DELTA);
+        profiler.drain(tickBytes);
+
+        // Counted separately, capture() drains the world's profiler too.
+        long before = threads.getCurrentThreadAllocatedBytes();
+        snapshot.capture(world, 0L, false);
+        tickBytes[PHASES.length] = threads.getCurrentThreadAllocatedBytes() - before;
+
+        long shapes = profiler.start();
+        shapes();
+        profiler.stop(Phase.SHAPES, shapes);
+
+        long particles = profiler.start();
+        effects.update(snapshot, DELTA);
+        profiler.stop(Phase.PARTICLES, particles);
+
+        long text = profiler.start();
+        scoreString.setLength(0);
+        scoreString.append(snapshot.score);
+        profiler.stop(Phase.TEXT, text);
+
+        profiler.stop(Phase.FRAME, frame);
+        profiler.drain(tickBytes);
+
+        for (int i = 0; i < CHECKS; i++) {
+            bytes[i] += tickBytes[i];
+            if (tickBytes[i] > 0) {
+                allocatingTicks[i]++;
+            }
+        }
+    }
+
+    // The vertices Renderer works out for every ship and asteroid.
+    private void shapes() {
+        for (int i = 0; i < snapshot.shipCount; i++) {
+            if (snapshot.shipAlive[i]) {
+                ShapeGeometry.ship(snapshot.shipX[i], snapshot.shipY[i], snapshot.shipRotation[i], shipVertices);
+            }
+        }
+        for (int i = 0; i < snapshot.asteroidCount; i++) {
+            ShapeGeometry.asteroid(snapshot.asteroidOutlines, i * ShapeGeometry.ASTEROID_FLOATS,
+                    snapshot.asteroidSides[i], snapshot.asteroidX[i], snapshot.asteroidY[i], asteroidVertices);
+        }
+    }
+
+    private void topUp() {
+        while (world.getAsteroidCount() < ASTEROIDS) {
+            world.spawnAsteroid(
+                    random.nextFloat() * GeosteroidsGame.WIDTH, random.nextFloat() * GeosteroidsGame.HEIGHT,
+                    random.nextFloat() * 100f - 50f, random.nextFloat() * 100f - 50f, 1 + random.nextInt(3)
+            );
+        }
+    }
+
+    private static int budget(int check) {
+        int budget = check == PHASES.length ? SNAPSHOT_BUDGET : BUDGETS.get(PHASES[check]);
+        return Integer.getInteger(BUDGET_PROPERTY + name(check), budget);
+    }
+
+    private static String name(int check) {
+        return check == PHASES.length ? SNAPSHOT : PHASES[check].name();
+    }
+}
@@ -2,14 +2,88 @@ package io.github.antonioartigas.geosteroids;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import io.github.antonioartigas.geosteroids.game.Renderer;
+import io.github.antonioartigas.geosteroids.net.LoopbackCheck;
+import io.github.antonioartigas.geosteroids.net.NetServer;
+import io.github.antonioartigas.geosteroids.replay.ReplayRunner;
+import io.github.antonioartigas.geosteroids.screens.NetPlayScreen;
+import io.github.antonioartigas.geosteroids.screens.StressScreen;
+import io.github.antonioartigas.geosteroids.sim.BatchSimulator;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
 
 // Please note that on macOS your application needs to be started with the -XstartOnFirstThread JVM argument
 public class DesktopLauncher {
-    public static void main(String[] arg) {
+    public static void main(String[] arg) throws Exception {
+        // Plays a recorded game back without a window: --replay <file> [repeat count]
+        if (arg.length > 0 && arg[0].equals("--replay")) {
+            ReplayRunner.main(Arrays.copyOfRange(arg, 1, arg.length));
+            return;
+        }
+
+        // Plays lots of headless games on all cores and prints stats: --batch [games] [max minutes] [threads] [pilot] [seed]
+        if (arg.length > 0 && arg[0].equals("--batch")) {
+            BatchSimulator.main(Arrays.copyOfRange(arg, 1, arg.length));
+            return;
+        }
+
+        // Runs a headless multiplayer server: --server [port] [players] [seed]
+        if (arg.length > 0 && arg[0].equals("--server")) {
+            NetServer.main(Arrays.copyOfRange(arg, 1, arg.length));
+            return;
+        }
+
+        // Runs a server and bot clients over loopback and prints bandwidth: --loopback-check [clients] [seconds] [extra asteroids] [seed]
+        if (arg.length > 0 && arg[0].equals("--loopback-check")) {
+            LoopbackCheck.main(Arrays.copyOfRange(arg, 1, arg.length));
+            return;
+        }
+
+        // Plays on a server: --connect host[:port]
+        InetSocketAddress server = arg.length > 1 && arg[0].equals("--connect") ? address(arg[1]) : null;
+
+        // Ramps the real game up to lots of entities and writes frame times to a report: --stress [max entities]
+        boolean stress = arg.length > 0 && arg[0].equals("--stress");
+        int stressEntities = arg.length > 1 && stress ? Integer.parseInt(arg[1]) : StressScreen.DEFAULT_MAX_ENTITIES;
+
         Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
-        config.setForegroundFPS(60);
+        if (stress) {
+            // Frame times should be what the frame costs, not how long we waited for the monitor.
+            config.useVsync(false);
+            config.setForegroundFPS(0);
+        } else {
+            // The simulation runs at a fixed tick rate (see PlayScreen), so render as fast as the monitor goes.
+            config.useVsync(true);
+            config.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+        }
+        // GL 3.2 for the instanced renderer. Renderer goes back to ShapeRenderer if the context doesn't have it.
+        if (Renderer.INSTANCED) {
+            config.setOpenGLEmulation(Lwjgl3ApplicationConfiguration.GLEmulation.GL30, 3, 2);
+            // The backend asks for a core profile on every platform, where the old GLSL that libGDX's own
+            // shaders (and ours) are written in doesn't compile. This turns it into GLSL 150.
+            ShaderProgram.prependVertexCode = "#version 150\n#define varying out\n#define attribute in\n";
+            ShaderProgram.prependFragmentCode = "#version 150\n#define varying in\n#define texture2D texture\n#define gl_FragColor fragColor\nout vec4 fragColor;\n";
+        }
         config.setWindowedMode(GeosteroidsGame.WIDTH, GeosteroidsGame.HEIGHT);
         config.setTitle("geosteroids");
-        new Lwjgl3Application(new GeosteroidsGame(), config);
+        GeosteroidsGame game;
+        if (stress) {
+            game = new GeosteroidsGame(g -> new StressScreen(g, stressEntities));
+        } else if (server != null) {
+            game = new GeosteroidsGame(g -> new NetPlayScreen(g, server));
+        } else {
+            game = new GeosteroidsGame();
+        }
+        new Lwjgl3Application(game, config);
+    }
+
+    private static InetSocketAddress address(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon == -1) {
+            return new InetSocketAddress(hostAndPort, NetServer.DEFAULT_PORT);
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)));
     }
 }
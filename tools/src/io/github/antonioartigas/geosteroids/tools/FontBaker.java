@@ -0,0 +1,101 @@
+package io.github.antonioartigas.geosteroids.tools;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
+
+import java.io.File;
+
+/**
+ * Renders a TTF/OTF font at a few sizes into BitmapFont files (.fnt plus .png pages), so the game can
+ * load those instead of rasterizing the font with FreeType every time it starts.
+ * <p>
+ * Run through {@code ./gradlew :tools:bakeFonts}. Arguments: font file, output directory, sizes.
+ * A font called bedstead.otf baked at 30 comes out as bedstead30.fnt and bedstead30.png, which is
+ * what Assets looks for.
+ */
+public class FontBaker extends ApplicationAdapter {
+    // Big enough for the default characters at 60px on one page.
+    private static final int PAGE_SIZE = 1024;
+
+    private final FileHandle fontFile;
+    private final FileHandle outputDir;
+    private final int[] sizes;
+
+    public FontBaker(FileHandle fontFile, FileHandle outputDir, int[] sizes) {
+        this.fontFile = fontFile;
+        this.outputDir = outputDir;
+        this.sizes = sizes;
+    }
+
+    @Override
+    public void create() {
+        // Pixmaps and FreeType need the natives, which the headless backend loads for us. No GL is needed.
+        try {
+            bake();
+        } catch (RuntimeException e) {
+            // Thrown from the backend's thread the JVM would still exit with 0, and the build would carry on.
+            e.printStackTrace();
+            System.exit(1);
+        }
+        Gdx.app.exit();
+    }
+
+    private void bake() {
+        outputDir.mkdirs();
+
+        var generator = new FreeTypeFontGenerator(fontFile);
+        try {
+            for (int size : sizes) {
+                bake(generator, size);
+            }
+        } finally {
+            generator.dispose();
+        }
+    }
+
+    private void bake(FreeTypeFontGenerator generator, int size) {
+        String name = fontFile.nameWithoutExtension() + size;
+
+        // Same settings FreetypeFontLoader uses by default, so baked and runtime fonts look the same.
+        var packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false);
+        var parameter = new FreeTypeFontParameter();
+        parameter.size = size;
+        parameter.characters = FreeTypeFontGenerator.DEFAULT_CHARS;
+        parameter.packer = packer;
+
+        try {
+            var data = generator.generateData(parameter);
+            var pages = BitmapFontWriter.writePixmaps(packer.getPages(), outputDir, name);
+            var info = new BitmapFontWriter.FontInfo(name, size);
+            BitmapFontWriter.writeFont(data, pages, outputDir.child(name + ".fnt"), info, PAGE_SIZE, PAGE_SIZE);
+            System.out.println("Baked " + name + " (" + pages.length + " page(s))");
+        } finally {
+            packer.dispose();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: FontBaker <font file> <output dir> <size>...");
+            System.exit(1);
+        }
+
+        var sizes = new int[args.length - 2];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Integer.parseInt(args[i + 2]);
+        }
+
+        new HeadlessApplication(new FontBaker(
+                new FileHandle(new File(args[0])),
+                new FileHandle(new File(args[1])),
+                sizes
+        ));
+    }
+}